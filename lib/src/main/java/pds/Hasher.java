@@ -0,0 +1,63 @@
+package pds;
+
+/**
+ * Стратегия хэширования и сравнения ключей персистентного ассоциативного массива.
+ * Позволяет задать собственные хэш-код и равенство ключей, сравнивать ключи по ссылке
+ * или использовать хэш-код, заранее вычисленный и сохраненный в ключе.
+ * @param <K> тип ключей
+ */
+public interface Hasher<K> {
+
+    /**
+     * Возвращает хэш-код ключа.
+     * @param key ключ
+     * @return хэш-код ключа
+     */
+    int hash(K key);
+
+    /**
+     * Возвращает true, если ключи равны; равные ключи должны иметь равные хэш-коды.
+     * @param left первый ключ
+     * @param right второй ключ
+     * @return true, если ключи равны; false, иначе
+     */
+    boolean equals(K left, K right);
+
+    /**
+     * Возвращает стратегию, использующую методы hashCode и equals ключей.
+     * @param <K> тип ключей
+     * @return стратегия по умолчанию
+     */
+    static <K> Hasher<K> standard() {
+        return new Hasher<K>() {
+            @Override
+            public int hash(K key) {
+                return key.hashCode();
+            }
+
+            @Override
+            public boolean equals(K left, K right) {
+                return left.equals(right);
+            }
+        };
+    }
+
+    /**
+     * Возвращает стратегию, сравнивающую ключи по ссылке.
+     * @param <K> тип ключей
+     * @return стратегия сравнения по ссылке
+     */
+    static <K> Hasher<K> identity() {
+        return new Hasher<K>() {
+            @Override
+            public int hash(K key) {
+                return System.identityHashCode(key);
+            }
+
+            @Override
+            public boolean equals(K left, K right) {
+                return left == right;
+            }
+        };
+    }
+}
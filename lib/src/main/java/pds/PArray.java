@@ -1,10 +1,27 @@
 package pds;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import pds.SubClasses.CopyPathClasses.Head;
 import pds.SubClasses.CopyPathClasses.Node;
+import pds.SubClasses.CopyPathClasses.PrimitiveNode;
+import pds.SubClasses.CopyPathClasses.Summary;
 import pds.SubClasses.UndoRedoClasses.UndoRedoDataStructure;
 import pds.SubClasses.UndoRedoClasses.UndoRedoStack;
 
@@ -13,38 +30,48 @@ import pds.SubClasses.UndoRedoClasses.UndoRedoStack;
  * @param <E> тип элементов в массиве
  */
 @SuppressWarnings("unchecked")
-public class PArray<E> extends UndoRedoDataStructure {
+public class PArray<E> extends UndoRedoDataStructure implements Iterable<E> {
     
-    /* Высота (глубина) двоичного дерева персистентного массива */
-    private int height;
     /* Число бит на каждую ноду двоичного дерева персистентного массива */
     private int bitsPerNode;
     /* Максимальный размер персистентного массива */
     private int maxSize;
-    /* Маска для реализации алгоритма bit partitioning */
-    private int mask;
+    /* Фабрика листьев для операций над деревом; массивы с примитивными листьями переопределяют newLeaf */
+    private final IntFunction<Node<E>> leaves = bits -> newLeaf();
+    /* Число элементов, начиная с которого поиск элемента выполняется параллельно */
+    private static final int PARALLEL_SCAN_THRESHOLD = 1 << 16;
+    /* Число элементов в поддереве, которое при параллельном поиске просматривается одной задачей */
+    private static final int PARALLEL_SCAN_CHUNK = 1 << 12;
 
     /**
-     * Конструктор класса.
-     * @param height высота (глубина) двоичного дерева персистентного массива
+     * Конструктор класса с ограниченным размером массива.
+     * Массив вмещает не более 2^(bitsPerNode * height) элементов; высота дерева растет вместе с числом элементов.
+     * @param height высота (глубина) двоичного дерева, определяющая максимальный размер массива
      * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного массива
      */
     public PArray(int height, int bitsPerNode) {
+        this(bitsPerNode);
+        this.maxSize = (int) Math.pow(2, bitsPerNode * height);
+    }
+
+    /**
+     * Конструктор класса без ограничения размера массива.
+     * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного массива
+     */
+    public PArray(int bitsPerNode) {
         super();
-        this.height = height;
         this.bitsPerNode = bitsPerNode;
-        this.maxSize = (int) Math.pow(2, bitsPerNode * height);
-        this.mask = (int) Math.pow(2, bitsPerNode) - 1;
-        Head<E> head = new Head<>(this.bitsPerNode);
+        this.maxSize = Integer.MAX_VALUE;
+        Head<E> head = newHead();
         this.versions = new UndoRedoStack<>(head);
         this.changes = new UndoRedoStack<>();
     }
 
     /**
-     * Конструктор класса со значениями по умолчанию (heigth = 3, bitsPerNode = 2).
+     * Конструктор класса со значениями по умолчанию (bitsPerNode = 2, без ограничения размера).
      */
     public PArray() {
-        this(3, 2);
+        this(2);
     }
 
     /**
@@ -52,33 +79,71 @@ public class PArray<E> extends UndoRedoDataStructure {
      * @param other объект класса PArray
      */
     public PArray(PArray<E> other) {
-        this(other.height, other.bitsPerNode);
+        this(other.bitsPerNode);
+        this.maxSize = other.maxSize;
         this.versions.clone(other.versions);
         this.changes.clone(other.changes);
     }
 
+    /**
+     * Создает персистентный массив (bitsPerNode = 2), единственная версия которого содержит указанные элементы.
+     * Листья заполняются целиком, а внутренние ноды строятся снизу вверх за один проход.
+     * @param <E> тип элементов в массиве
+     * @param values элементы массива
+     * @return персистентный массив, содержащий элементы
+     */
+    @SafeVarargs
+    public static <E> PArray<E> of(E... values) {
+        PArray<E> array = new PArray<>();
+        Object[] elements = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            elements[i] = values[i];
+        }
+        array.setParents(elements);
+        array.versions = new UndoRedoStack<>(RRBTree.build(array.bitsPerNode, array.leaves, elements, 0, elements.length));
+        return array;
+    }
+
+    /**
+     * Создает персистентный массив (bitsPerNode = 2), единственная версия которого содержит элементы коллекции
+     * в порядке ее итератора.
+     * @param <E> тип элементов в массиве
+     * @param values коллекция, содержащая элементы массива
+     * @return персистентный массив, содержащий элементы коллекции
+     */
+    public static <E> PArray<E> from(Collection<? extends E> values) {
+        Object[] content = values.toArray();
+        PArray<E> array = new PArray<>();
+        array.setParents(content);
+        array.versions = new UndoRedoStack<>(RRBTree.build(array.bitsPerNode, array.leaves, content, 0, content.length));
+        return array;
+    }
+
+    /**
+     * Возвращает коллектор, собирающий элементы потока в персистентный массив с помощью {@link #from(Collection) from}.
+     * @param <E> тип элементов в массиве
+     * @return коллектор элементов в персистентный массив
+     */
+    public static <E> Collector<E, ?, PArray<E>> collector() {
+        return Collector.<E, List<E>, PArray<E>>of(ArrayList::new, List::add, (left, right) -> {
+            left.addAll(right);
+            return left;
+        }, PArray::from);
+    }
+
     /**
      * Преобразует персистентный массив в список.
      * @return список, содержащий элементы персистентного массива
      */
     public List<Object> toList() {
         List<Object> values;
-        Head<E> Head = getHead();
-        if (Head != null) {
-            Object[] leafNodeValues;
-            values = new ArrayList<>(Head.size());
-            for (int i = 0; i < Head.size(); i = i + this.mask + 1) {
-                leafNodeValues = getLeafNodeValues(Head, i);
-                for (int j = 0; j < this.mask + 1; j++) {
-                    if (leafNodeValues[j] != null) {
-                        Object value = leafNodeValues[j];
-                        if (value instanceof UndoRedoDataStructure) {
-                            value = ((UndoRedoDataStructure) value).toList();
-                        }
-                        values.add((E) value);
-                    }
-                }
+        Head<E> head = getHead();
+        if (head != null) {
+            values = new ArrayList<>(head.size());
+            if (tailOffset(head) > 0) {
+                toList(head.getRoot(), getShift(head.getHeight()), values);
             }
+            toList(head.getTail(), 0, values);
         } else {
             values = new ArrayList<>(0);
         }
@@ -91,23 +156,33 @@ public class PArray<E> extends UndoRedoDataStructure {
      * @return true, если элемент присутствует в персистентом массиве; false, иначе
      */
     public boolean contains(Object value) {
-        if (toList().contains(value)) {
-            return true;
-        }
-        return false;
+        return indexOf(value) >= 0;
     }
 
     /**
      * Возвращает индекс элемента в персистентном массиве.
+     * Листья просматриваются на месте до первого совпадения; в больших массивах поддеревья
+     * просматриваются параллельно в общем пуле fork-join, и поиск правее найденного элемента прекращается.
      * @param value элемент
      * @return индекс элемента в персистентом массиве, если присутствует; -1, иначе
      */
     public int indexOf(Object value) {
-        List<Object> values = toList(); 
-        if (values.contains(value)) {
-            return values.indexOf(value);
+        Head<E> head = getHead();
+        int offset = tailOffset(head);
+        if (offset > 0) {
+            int shift = getShift(head.getHeight());
+            int index;
+            if (offset >= PARALLEL_SCAN_THRESHOLD) {
+                index = ForkJoinPool.commonPool().invoke(new IndexOfTask(head.getRoot(), shift, 0, value, new AtomicInteger(Integer.MAX_VALUE)));
+            } else {
+                index = indexOf(head.getRoot(), shift, value);
+            }
+            if (index >= 0) {
+                return index;
+            }
         }
-        return -1;
+        int index = indexOf(head.getTail(), 0, value);
+        return (index >= 0) ? offset + index : -1;
     }
 
     /**
@@ -145,6 +220,103 @@ public class PArray<E> extends UndoRedoDataStructure {
         return get(head, index);
     }
 
+    /**
+     * Возвращает элемент по индексу из указанной версии персистентного массива без выполнения undo-redo.
+     * @param version номер версии персистентного массива
+     * @param index индекс элемента в указанной версии
+     * @return элемент из указанной версии персистентного массива
+     */
+    public E get(int version, int index) {
+        return get(getHead(version), index);
+    }
+
+    /**
+     * Возвращает количество элементов в указанной версии персистентного массива.
+     * @param version номер версии персистентного массива
+     * @return количество элементов в указанной версии
+     */
+    public int size(int version) {
+        return getHead(version).size();
+    }
+
+    /**
+     * Возвращает индексы элементов, различающихся в двух версиях персистентного массива.
+     * Версии обходятся параллельно; поддеревья, которые версии разделяют на одних и тех же позициях, пропускаются,
+     * поэтому время работы пропорционально числу измененных листьев, а не размеру массива.
+     * Индексы, присутствующие только в одной из версий, также считаются измененными.
+     * @param fromVersion номер первой версии
+     * @param toVersion номер второй версии
+     * @return упорядоченный по возрастанию список индексов измененных элементов
+     */
+    public List<Integer> diff(int fromVersion, int toVersion) {
+        return diff(getHead(fromVersion), getHead(toVersion), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Возвращает хэш-код текущей версии персистентного массива, совпадающий с хэш-кодом списка {@link #toList() toList}.
+     * Хэш-коды поддеревьев кэшируются во внутренних нодах и используются всеми версиями, разделяющими эти ноды;
+     * поддеревья с вложенными структурами данных не кэшируются, так как те изменяются на месте.
+     * @return хэш-код персистентного массива
+     */
+    @Override
+    public int hashCode() {
+        Head<E> head = getHead();
+        int offset = tailOffset(head);
+        int hash = power(head.size()) + hash(head.getTail(), 0, head.getTail().getCount());
+        if (offset > 0) {
+            hash += hash(head.getRoot(), getShift(head.getHeight()), offset) * power(head.getTail().getCount());
+        }
+        return hash;
+    }
+
+    /**
+     * Сравнивает текущие версии двух персистентных массивов поэлементно.
+     * Массивы с разными хэш-кодами сразу считаются различными, а при сравнении элементов
+     * пропускаются поддеревья, общие для обеих версий.
+     * @param other объект для сравнения
+     * @return true, если другой объект является персистентным массивом с теми же элементами; false, иначе
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PArray)) {
+            return false;
+        }
+        PArray<E> array = (PArray<E>) other;
+        Head<E> head = getHead();
+        Head<E> otherHead = array.getHead();
+        if (head == otherHead) {
+            return true;
+        }
+        if ((head.size() != otherHead.size()) || (hashCode() != array.hashCode())) {
+            return false;
+        }
+        if (array.bitsPerNode == this.bitsPerNode) {
+            return diff(head, otherHead, 1).isEmpty();
+        }
+        for (int i = 0; i < head.size(); i++) {
+            if (!same(get(head, i), array.get(otherHead, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает новый персистентный массив, единственная версия которого совпадает с указанной версией данного массива.
+     * Ноды указанной версии используются повторно без копирования.
+     * @param version номер версии персистентного массива
+     * @return персистентный массив, содержащий указанную версию
+     */
+    public PArray<E> snapshot(int version) {
+        PArray<E> array = newArray();
+        array.maxSize = this.maxSize;
+        array.versions = new UndoRedoStack<>(getHead(version));
+        return array;
+    }
+
     /**
      * Добавляет элемент в конец персистентного массива.
      * @param value добавляемый элемент
@@ -152,11 +324,11 @@ public class PArray<E> extends UndoRedoDataStructure {
      */
     public boolean add(E value) {
         setParent(value);
-        Head<E> head = new Head<>(this.bitsPerNode);
+        Head<E> head = newHead();
         head.clone(getHead());
         checkIfFull(head);
         newVersion(head);
-        add(head, value);
+        RRBTree.add(this.bitsPerNode, this.leaves, head, value);
         return true;
     }
 
@@ -170,29 +342,22 @@ public class PArray<E> extends UndoRedoDataStructure {
         Head<E> oldHead = getHead();
         checkIfFull(oldHead);
         checkIndex(oldHead, index);
-        Node<E> node = partCopyPath(oldHead, index);
-        node.set(index & this.mask, value);
-        Head<E> newHead = getHead();
-        for (int i = index; i < oldHead.size(); i++) {
-            add(newHead, (E) get(oldHead, i));
-        }
+        newVersion(RRBTree.insert(this.bitsPerNode, this.leaves, oldHead, index, value));
     }
 
     /**
      * Добавляет все элементы из списка в конец персистентного массива.
+     * Добавляемые элементы дописываются в хвостовой лист, остальные собираются в поддерево снизу вверх
+     * и присоединяются к массиву одной конкатенацией.
      * @param values список, содержащий добавляемые элементы
      * @return true, если все элементы из списка были добавлены в персистентный массив
      */
     public boolean addAll(List<E> values) {
-        Head<E> head = new Head<>(this.bitsPerNode);
-        checkIfFull(head, values.size());
-        head.clone(getHead());
-        newVersion(head);
-        for (int i = 0; i < values.size(); i++) {
-            E value = values.get(i);
-            setParent(value);
-            add(head, value);
-        }
+        Head<E> oldHead = getHead();
+        checkIfFull(oldHead, values.size());
+        Object[] content = values.toArray();
+        setParents(content);
+        newVersion(RRBTree.addAll(this.bitsPerNode, this.leaves, oldHead, content));
         return true;
     }
 
@@ -207,11 +372,11 @@ public class PArray<E> extends UndoRedoDataStructure {
         Head<E> oldHead = getHead();
         checkIfEmpty(oldHead);
         checkIndex(oldHead, index);
-        Head<E> newHead = new Head<>(this.bitsPerNode);
+        Head<E> newHead = newHead();
         newHead.clone(oldHead);
         newVersion(newHead);
         E prevValue = get(newHead, index);
-        set(newHead, index, value);
+        set(newHead, index, value, null);
         return prevValue;
     }
 
@@ -224,13 +389,8 @@ public class PArray<E> extends UndoRedoDataStructure {
         Head<E> oldHead = getHead();
         checkIndex(oldHead, index);
         checkIfEmpty(oldHead);
-        Node<E> node = partCopyPath(oldHead, index);
-        E value = (E) node.pop();
-        Head<E>newHead = getHead();
-        newHead.setSize(newHead.size() - 1);
-        for (int i = index + 1; i < oldHead.size(); i++) {
-            add(newHead, (E) get(oldHead, i));
-        }
+        E value = get(oldHead, index);
+        newVersion(RRBTree.delete(this.bitsPerNode, this.leaves, oldHead, index));
         return value;
     }
 
@@ -238,10 +398,122 @@ public class PArray<E> extends UndoRedoDataStructure {
      * Удаляет все элементы из персистентного массива.
      */
     public void clear() {
-        Head<E> head = new Head<>(this.bitsPerNode);
+        Head<E> head = newHead();
         newVersion(head);
     }
 
+    /**
+     * Добавляет все элементы другого персистентного массива в конец данного массива.
+     * Ноды текущей версии другого массива того же типа используются повторно без копирования элементов.
+     * Вложенные структуры данных сохраняют связь с исходным массивом для механизма undo-redo.
+     * @param other персистентный массив, содержащий добавляемые элементы
+     */
+    public void concat(PArray<E> other) {
+        Head<E> head = getHead();
+        Head<E> otherHead = other.getHead();
+        checkIfFull(head, otherHead.size());
+        if ((other.bitsPerNode == this.bitsPerNode) && (other.getClass() == getClass())) {
+            newVersion(RRBTree.concat(this.bitsPerNode, this.leaves, head, otherHead));
+        } else {
+            Head<E> newHead = newHead();
+            newHead.clone(head);
+            for (int i = 0; i < otherHead.size(); i++) {
+                RRBTree.add(this.bitsPerNode, this.leaves, newHead, other.get(otherHead, i));
+            }
+            newVersion(newHead);
+        }
+    }
+
+    /**
+     * Возвращает новый персистентный массив, содержащий элементы с индексами от from (включительно) до to (не включительно).
+     * Новый массив использует ноды текущей версии данного массива без копирования элементов.
+     * Вложенные структуры данных сохраняют связь с исходным массивом для механизма undo-redo.
+     * @param from индекс первого элемента
+     * @param to индекс, следующий за индексом последнего элемента
+     * @return персистентный массив, содержащий элементы из диапазона
+     */
+    public PArray<E> slice(int from, int to) {
+        Head<E> head = getHead();
+        if ((from < 0) || (to > head.size()) || (from > to)) {
+            throw new IndexOutOfBoundsException("Неверный диапазон индексов в персистентном массиве");
+        }
+        PArray<E> array = newArray();
+        array.maxSize = this.maxSize;
+        Head<E> prefix = RRBTree.takeFirst(this.bitsPerNode, this.leaves, head, to);
+        array.versions = new UndoRedoStack<>(RRBTree.dropFirst(array.bitsPerNode, array.leaves, prefix, from));
+        return array;
+    }
+
+    /**
+     * Возвращает курсор по элементам текущей версии персистентного массива, начиная с первого элемента.
+     * @return курсор по элементам персистентного массива
+     */
+    public Cursor cursor() {
+        return cursor(0);
+    }
+
+    /**
+     * Возвращает курсор по элементам текущей версии персистентного массива, начиная с указанного индекса.
+     * @param index индекс первого элемента, возвращаемого {@link Cursor#next() next}
+     * @return курсор по элементам персистентного массива
+     */
+    public Cursor cursor(int index) {
+        Head<E> head = getHead();
+        if ((index < 0) || (index > head.size())) {
+            throw new IndexOutOfBoundsException("Неверный индекс элемента в персистентном массиве");
+        }
+        return new Cursor(head, index);
+    }
+
+    /**
+     * Возвращает итератор по элементам текущей версии персистентного массива.
+     * @return итератор по элементам персистентного массива
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return cursor();
+    }
+
+    /**
+     * Выполняет действие для каждого элемента текущей версии персистентного массива по порядку.
+     * Элементы читаются курсором непосредственно из листьев.
+     * @param action действие
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        cursor().forEachRemaining(action);
+    }
+
+    /**
+     * Возвращает сплитератор по элементам текущей версии персистентного массива.
+     * Сплитератор обходит листья двоичного дерева без копирования элементов и
+     * разделяется по границам поддеревьев.
+     * @return сплитератор по элементам персистентного массива
+     */
+    public Spliterator<E> spliterator() {
+        Head<E> head = getHead();
+        return new LeafSpliterator(head, 0, head.size());
+    }
+
+    /**
+     * Возвращает последовательный поток элементов текущей версии персистентного массива.
+     * @return поток элементов персистентного массива
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Возвращает транзиентную версию персистентного массива для пакетных изменений.
+     * Изменения транзиентной версии не создают новых версий массива до вызова
+     * {@link Transient#persistent() persistent}, при этом текущая версия массива не должна
+     * изменяться, пока транзиентная версия не опубликована.
+     * @return транзиентная версия персистентного массива
+     */
+    public Transient<E> asTransient() {
+        return new Transient<>(this);
+    }
+
     /**
      * Возвращает максимальный размер персистентного массива.
      * @return максимальный размер персистентного массива
@@ -259,88 +531,330 @@ public class PArray<E> extends UndoRedoDataStructure {
     }
 
     /**
-     * Возвращает высоту (глубину) двоичного дерева персистентного массива.
+     * Возвращает высоту (глубину) двоичного дерева текущей версии персистентного массива.
      * @return высота двоичного дерева
      */
     public int getheight() {
-        return this.height;
-    }
-
-    private Node<E> copyPath(Head<E> Head, int index) {
-        Node<E> currentNode;
-        Node<E> newNode;
-        currentNode = Head.getRoot();
-        for (int level = (this.height - 1) * this.bitsPerNode; level > 0; level -= this.bitsPerNode) {
-            int id = (index >> level) & this.mask;
-            if (currentNode.isEmpty()) {
-                newNode = new Node<>(this.bitsPerNode);
-                currentNode.add(newNode);
+        return getHead().getHeight();
+    }
+
+    /**
+     * Возвращает элемент по индексу из переданной версии массива.
+     * @param head версия массива
+     * @param index индекс элемента
+     * @return элемент массива
+     */
+    E get(Head<E> head, int index) {
+        checkIndex(head, index);
+        return RRBTree.get(this.bitsPerNode, head, index);
+    }
+
+    /**
+     * Возвращает двоичное представление элемента по индексу из текущей версии массива с примитивными листьями.
+     * @param index индекс элемента
+     * @return двоичное представление элемента
+     */
+    long getBits(int index) {
+        return getBits(getHead(), index);
+    }
+
+    /**
+     * Возвращает двоичное представление элемента по индексу из указанной версии массива с примитивными листьями.
+     * @param version номер версии
+     * @param index индекс элемента
+     * @return двоичное представление элемента
+     */
+    long getBits(int version, int index) {
+        return getBits(getHead(version), index);
+    }
+
+    /**
+     * Сворачивает элементы с индексами от from (включительно) до to (не включительно) из текущей версии массива.
+     * Свертки поддеревьев, целиком попадающих в диапазон, кэшируются во внутренних нодах и используются
+     * всеми версиями, разделяющими эти ноды.
+     * @param from индекс первого элемента
+     * @param to индекс, следующий за индексом последнего элемента
+     * @param identity нейтральный элемент операции
+     * @param operator ассоциативная операция
+     * @return свертка элементов диапазона
+     */
+    E reduce(int from, int to, E identity, BinaryOperator<E> operator) {
+        return reduce(getHead(), from, to, identity, operator);
+    }
+
+    /**
+     * Сворачивает элементы с индексами от from (включительно) до to (не включительно) из указанной версии массива.
+     * @param version номер версии
+     * @param from индекс первого элемента
+     * @param to индекс, следующий за индексом последнего элемента
+     * @param identity нейтральный элемент операции
+     * @param operator ассоциативная операция
+     * @return свертка элементов диапазона
+     */
+    E reduce(int version, int from, int to, E identity, BinaryOperator<E> operator) {
+        return reduce(getHead(version), from, to, identity, operator);
+    }
+
+    /**
+     * Создает пустой лист дерева; массивы с примитивными листьями переопределяют этот метод.
+     * @return пустой лист
+     */
+    protected Node<E> newLeaf() {
+        return new Node<>(this.bitsPerNode);
+    }
+
+    /**
+     * Создает пустой массив того же типа, что и данный массив.
+     * @return пустой персистентный массив
+     */
+    protected PArray<E> newArray() {
+        return new PArray<>(this.bitsPerNode);
+    }
+
+    private long getBits(Head<E> head, int index) {
+        checkIndex(head, index);
+        return RRBTree.getBits(this.bitsPerNode, head, index);
+    }
+
+    private void set(Head<E> head, int index, E value, Object edit) {
+        int offset = tailOffset(head);
+        if (index >= offset) {
+            head.getTail().set(index - offset, value);
+            return;
+        }
+        Node<E> node = RRBTree.editable(head.getRoot(), edit);
+        head.setRoot(node);
+        for (int shift = getShift(head.getHeight()); shift > 0; shift -= this.bitsPerNode) {
+            int id = RRBTree.getChildIndex(node, shift, index);
+            index -= RRBTree.getChildOffset(node, shift, id);
+            Node<E> child = RRBTree.editable((Node<E>) node.get(id), edit);
+            node.set(id, child);
+            node = child;
+        }
+        node.set(index, value);
+    }
+
+    private void toList(Node<E> node, int shift, List<Object> values) {
+        for (int i = 0; i < node.getCount(); i++) {
+            Object value = node.get(i);
+            if (shift > 0) {
+                toList((Node<E>) value, shift - this.bitsPerNode, values);
             } else {
-                if (id == currentNode.getCount()) {
-                    newNode = new Node<>(this.bitsPerNode);
-                    currentNode.add(newNode);
-                } else {
-                    newNode = new Node<>(this.bitsPerNode);
-                    newNode.clone((Node<E>) currentNode.get(id));
-                    currentNode.set(id, newNode);
+                if (value instanceof UndoRedoDataStructure) {
+                    value = ((UndoRedoDataStructure) value).toList();
                 }
+                values.add(value);
             }
-            currentNode = newNode;
         }
-        return currentNode;
     }
 
-    private Node<E> partCopyPath(Head<E> Head, int index) {
-        Head<E> newHead = new Head<>(this.bitsPerNode);
-        newHead.partClone(Head, (index >> (this.bitsPerNode * (height - 1))) & this.mask);
-        newHead.setSize(index + 1);
-        newVersion(newHead);
-        Node<E> currentNode = newHead.getRoot();
-        for (int level = this.bitsPerNode * (height - 1); level > 0; level -= this.bitsPerNode) {
-            int id = (index >> level) & this.mask;
-            int idNext = (index >> (level - this.bitsPerNode)) & this.mask;
-            Node<E> newNode = new Node<>(this.bitsPerNode);
-            newNode.partClone((Node<E>) currentNode.get(id), idNext);
-            currentNode.set(id, newNode);
-            currentNode = newNode;
+    private int indexOf(Node<E> node, int shift, Object value) {
+        if (shift == 0) {
+            if (node instanceof PrimitiveNode) {
+                return ((PrimitiveNode<E>) node).indexOf(value, 0, node.getCount());
+            }
+            for (int i = 0; i < node.getCount(); i++) {
+                if (matches(value, node.get(i))) {
+                    return i;
+                }
+            }
+            return -1;
         }
-        return currentNode;
+        for (int i = 0; i < node.getCount(); i++) {
+            int index = indexOf((Node<E>) node.get(i), shift - this.bitsPerNode, value);
+            if (index >= 0) {
+                return RRBTree.getChildOffset(node, shift, i) + index;
+            }
+        }
+        return -1;
     }
 
-    private E get(Head<E> head, int index) {
-        return (E) getLeafNodeValues(head, index)[index & this.mask];
+    private List<Integer> diff(Head<E> from, Head<E> to, int limit) {
+        List<Integer> indexes = new ArrayList<>();
+        int fromOffset = tailOffset(from);
+        int toOffset = tailOffset(to);
+        int common = Math.min(fromOffset, toOffset);
+        if (common > 0) {
+            diff(from.getRoot(), getShift(from.getHeight()), 0, fromOffset,
+                to.getRoot(), getShift(to.getHeight()), 0, toOffset, 0, common, indexes, limit);
+        }
+        int size = Math.min(from.size(), to.size());
+        for (int i = common; (i < size) && (indexes.size() < limit); i++) {
+            if (!same(get(from, i), get(to, i))) {
+                indexes.add(i);
+            }
+        }
+        for (int i = size; (i < Math.max(from.size(), to.size())) && (indexes.size() < limit); i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private void diff(Node<E> left, int leftShift, int leftBase, int leftSize,
+                      Node<E> right, int rightShift, int rightBase, int rightSize,
+                      int from, int to, List<Integer> indexes, int limit) {
+        if ((left == right) && (leftShift == rightShift) && (leftBase == rightBase)) {
+            return;
+        }
+        if ((leftShift == 0) && (rightShift == 0)) {
+            for (int i = from; (i < to) && (indexes.size() < limit); i++) {
+                if (!same(left.get(i - leftBase), right.get(i - rightBase))) {
+                    indexes.add(i);
+                }
+            }
+            return;
+        }
+        if (leftShift >= rightShift) {
+            int first = RRBTree.getChildIndex(left, leftShift, from - leftBase);
+            int last = RRBTree.getChildIndex(left, leftShift, to - 1 - leftBase);
+            for (int id = first; (id <= last) && (indexes.size() < limit); id++) {
+                int childBase = leftBase + RRBTree.getChildOffset(left, leftShift, id);
+                int childSize = leftBase + RRBTree.getChildOffset(left, leftShift, id + 1, leftSize) - childBase;
+                diff((Node<E>) left.get(id), leftShift - this.bitsPerNode, childBase, childSize,
+                    right, rightShift, rightBase, rightSize,
+                    Math.max(from, childBase), Math.min(to, childBase + childSize), indexes, limit);
+            }
+        } else {
+            int first = RRBTree.getChildIndex(right, rightShift, from - rightBase);
+            int last = RRBTree.getChildIndex(right, rightShift, to - 1 - rightBase);
+            for (int id = first; (id <= last) && (indexes.size() < limit); id++) {
+                int childBase = rightBase + RRBTree.getChildOffset(right, rightShift, id);
+                int childSize = rightBase + RRBTree.getChildOffset(right, rightShift, id + 1, rightSize) - childBase;
+                diff(left, leftShift, leftBase, leftSize,
+                    (Node<E>) right.get(id), rightShift - this.bitsPerNode, childBase, childSize,
+                    Math.max(from, childBase), Math.min(to, childBase + childSize), indexes, limit);
+            }
+        }
+    }
+
+    private int hash(Node<E> node, int shift, int size) {
+        if (shift == 0) {
+            int hash = 0;
+            for (int i = 0; i < node.getCount(); i++) {
+                hash = 31 * hash + hash(node.get(i));
+            }
+            return hash;
+        }
+        if (node.getHash() != null) {
+            return node.getHash();
+        }
+        int hash = 0;
+        boolean stable = true;
+        for (int id = 0; id < node.getCount(); id++) {
+            int childOffset = RRBTree.getChildOffset(node, shift, id);
+            int childSize = RRBTree.getChildOffset(node, shift, id + 1, size) - childOffset;
+            Node<E> child = (Node<E>) node.get(id);
+            hash = hash * power(childSize) + hash(child, shift - this.bitsPerNode, childSize);
+            stable = stable && ((shift > this.bitsPerNode) ? (child.getHash() != null) : isStable(child));
+        }
+        if (stable) {
+            node.setHash(hash);
+        }
+        return hash;
     }
 
-    private void add(Head<E> head, E value) {
-        head.setSize(head.size() + 1);
-        Node<E> node = copyPath(head, head.size() - 1);
-        node.add(value);
+    private boolean isStable(Node<E> leaf) {
+        if (leaf instanceof PrimitiveNode) {
+            return true;
+        }
+        for (int i = 0; i < leaf.getCount(); i++) {
+            if (leaf.get(i) instanceof UndoRedoDataStructure) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private void set(Head<E> head, int index, E value) {
-        Node<E> node = copyPath(head, index);
-        node.set(index & this.mask, value);
+    private E reduce(Head<E> head, int from, int to, E identity, BinaryOperator<E> operator) {
+        if ((from < 0) || (to > head.size()) || (from > to)) {
+            throw new IndexOutOfBoundsException("Неверный диапазон индексов в персистентном массиве");
+        }
+        E result = identity;
+        int offset = tailOffset(head);
+        if (from < Math.min(to, offset)) {
+            result = reduce(head.getRoot(), getShift(head.getHeight()), offset, from, Math.min(to, offset), result, operator);
+        }
+        if (to > offset) {
+            result = reduce(head.getTail(), 0, head.getTail().getCount(), Math.max(from, offset) - offset, to - offset, result, operator);
+        }
+        return result;
     }
 
-    private Object[] getLeafNodeValues(Head<E> head, int index) {
-        return getLeafNode(head, index).get();
+    private E reduce(Node<E> node, int shift, int size, int from, int to, E result, BinaryOperator<E> operator) {
+        if (shift == 0) {
+            for (int i = from; i < to; i++) {
+                result = operator.apply(result, (E) node.get(i));
+            }
+            return result;
+        }
+        if ((from == 0) && (to == size)) {
+            return operator.apply(result, summarize(node, shift, size, operator));
+        }
+        int first = RRBTree.getChildIndex(node, shift, from);
+        int last = RRBTree.getChildIndex(node, shift, to - 1);
+        for (int id = first; id <= last; id++) {
+            int childOffset = RRBTree.getChildOffset(node, shift, id);
+            int childSize = RRBTree.getChildOffset(node, shift, id + 1, size) - childOffset;
+            int childFrom = Math.max(from, childOffset) - childOffset;
+            int childTo = Math.min(to, childOffset + childSize) - childOffset;
+            result = reduce((Node<E>) node.get(id), shift - this.bitsPerNode, childSize, childFrom, childTo, result, operator);
+        }
+        return result;
     }
 
-    private Node<E> getLeafNode(Head<E> head, int index) {
-        Node<E> node;
-        checkIndex(head, index);
-        node = head.getRoot();
-        for (int level = this.bitsPerNode * (this.height - 1); level > 0; level -= this.bitsPerNode) {
-            int id = (index >> level) & this.mask;
-            node = (Node<E>) node.get(id);
+    private E summarize(Node<E> node, int shift, int size, BinaryOperator<E> operator) {
+        Summary<E> summary = node.getSummary();
+        if ((summary != null) && (summary.getKey() == operator)) {
+            return summary.getValue();
+        }
+        E result = null;
+        for (int id = 0; id < node.getCount(); id++) {
+            int childOffset = RRBTree.getChildOffset(node, shift, id);
+            int childSize = RRBTree.getChildOffset(node, shift, id + 1, size) - childOffset;
+            Node<E> child = (Node<E>) node.get(id);
+            E value = (shift > this.bitsPerNode)
+                ? summarize(child, shift - this.bitsPerNode, childSize, operator)
+                : reduce(child, 0, childSize, 1, childSize, (E) child.get(0), operator);
+            result = (id == 0) ? value : operator.apply(result, value);
+        }
+        node.setSummary(new Summary<>(operator, result));
+        return result;
+    }
+
+    private void setParents(Object[] values) {
+        for (Object value : values) {
+            setParent(value);
         }
-        return node;
+    }
+
+    private Head<E> newHead() {
+        return RRBTree.newHead(this.bitsPerNode, this.leaves);
+    }
+
+    private void pushTail(Head<E> head, Object edit) {
+        RRBTree.pushTail(this.bitsPerNode, this.leaves, head, edit);
+    }
+
+    private int tailOffset(Head<E> head) {
+        return RRBTree.tailOffset(head);
+    }
+
+    private int getShift(int height) {
+        return RRBTree.getShift(this.bitsPerNode, height);
+    }
+
+    private int getCapacity(int height) {
+        return RRBTree.getCapacity(this.bitsPerNode, height);
     }
 
     private Head<E> getHead() {
         return (Head<E>) this.versions.getCurrent();
     }
 
+    private Head<E> getHead(int version) {
+        return (Head<E>) getVersion(version);
+    }
+
     private boolean isFull(Head<E> head) {
         return head.size() == this.maxSize;
     }
@@ -368,4 +882,428 @@ public class PArray<E> extends UndoRedoDataStructure {
             throw new IndexOutOfBoundsException("Неверный индекс элемента в персистентном массиве");
         }
     }
+
+    /**
+     * Сплитератор по диапазону индексов одной версии персистентного массива.
+     * Элементы читаются непосредственно из листьев; лист ищется один раз на каждые 2^bitsPerNode элементов.
+     */
+    private class LeafSpliterator implements Spliterator<E> {
+
+        /* Обходимая версия персистентного массива */
+        private final Head<E> head;
+        /* Индекс следующего элемента */
+        private int index;
+        /* Индекс, следующий за индексом последнего элемента */
+        private final int fence;
+        /* Текущий лист */
+        private Node<E> leaf;
+        /* Индекс следующего элемента в текущем листе */
+        private int leafIndex;
+        /* Индекс, следующий за индексом последнего обходимого элемента в текущем листе */
+        private int leafFence;
+
+        private LeafSpliterator(Head<E> head, int index, int fence) {
+            this.head = head;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (this.index >= this.fence) {
+                return false;
+            }
+            if (this.leafIndex == this.leafFence) {
+                seek();
+            }
+            E value = (E) this.leaf.get(this.leafIndex);
+            this.leafIndex++;
+            this.index++;
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            while (this.index < this.fence) {
+                if (this.leafIndex == this.leafFence) {
+                    seek();
+                }
+                Node<E> node = this.leaf;
+                int from = this.leafIndex;
+                int to = this.leafFence;
+                this.index += to - from;
+                this.leafIndex = to;
+                for (int i = from; i < to; i++) {
+                    action.accept((E) node.get(i));
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int split = splitIndex();
+            if (split < 0) {
+                return null;
+            }
+            Spliterator<E> prefix = new LeafSpliterator(this.head, this.index, split);
+            this.index = split;
+            this.leafIndex = 0;
+            this.leafFence = 0;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.fence - this.index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE;
+        }
+
+        private void seek() {
+            int offset = tailOffset(this.head);
+            int local = this.index;
+            Node<E> node;
+            if (local >= offset) {
+                node = this.head.getTail();
+                local -= offset;
+            } else {
+                node = this.head.getRoot();
+                for (int shift = getShift(this.head.getHeight()); shift > 0; shift -= bitsPerNode) {
+                    int id = RRBTree.getChildIndex(node, shift, local);
+                    local -= RRBTree.getChildOffset(node, shift, id);
+                    node = (Node<E>) node.get(id);
+                }
+            }
+            this.leaf = node;
+            this.leafIndex = local;
+            this.leafFence = Math.min(node.getCount(), local + this.fence - this.index);
+        }
+
+        private int splitIndex() {
+            int end = Math.min(this.fence, tailOffset(this.head));
+            if (this.index >= end) {
+                return -1;
+            }
+            int middle = this.index + (this.fence - this.index) / 2;
+            Node<E> node = this.head.getRoot();
+            int base = 0;
+            for (int shift = getShift(this.head.getHeight()); shift > 0; shift -= bitsPerNode) {
+                int first = RRBTree.getChildIndex(node, shift, this.index - base);
+                int last = RRBTree.getChildIndex(node, shift, end - 1 - base);
+                if (first != last) {
+                    int id = RRBTree.getChildIndex(node, shift, Math.min(middle, end - 1) - base);
+                    if (id == first) {
+                        id++;
+                    }
+                    return base + RRBTree.getChildOffset(node, shift, id);
+                }
+                base += RRBTree.getChildOffset(node, shift, first);
+                node = (Node<E>) node.get(first);
+            }
+            return (end < this.fence) ? end : -1;
+        }
+    }
+
+    /**
+     * Курсор по одной версии персистентного массива.
+     * Курсор хранит текущий лист и спускается от корня только при переходе через границу листа,
+     * поэтому последовательное чтение стоит в среднем одно обращение к массиву на элемент.
+     * Версия не изменяется через курсор.
+     */
+    public class Cursor implements ListIterator<E> {
+
+        /* Обходимая версия персистентного массива */
+        private final Head<E> head;
+        /* Индекс элемента, возвращаемого следующим вызовом next */
+        private int index;
+        /* Текущий лист */
+        private Node<E> leaf;
+        /* Индекс первого элемента текущего листа в персистентном массиве */
+        private int leafStart;
+
+        private Cursor(Head<E> head, int index) {
+            this.head = head;
+            this.index = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.index < this.head.size();
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E value = element(this.index);
+            this.index++;
+            return value;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return this.index > 0;
+        }
+
+        @Override
+        public E previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            this.index--;
+            return element(this.index);
+        }
+
+        @Override
+        public int nextIndex() {
+            return this.index;
+        }
+
+        @Override
+        public int previousIndex() {
+            return this.index - 1;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            while (hasNext()) {
+                element(this.index);
+                Node<E> node = this.leaf;
+                int from = this.index - this.leafStart;
+                int to = node.getCount();
+                this.index = this.leafStart + to;
+                for (int i = from; i < to; i++) {
+                    action.accept((E) node.get(i));
+                }
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Курсор не изменяет персистентный массив");
+        }
+
+        @Override
+        public void set(E value) {
+            throw new UnsupportedOperationException("Курсор не изменяет персистентный массив");
+        }
+
+        @Override
+        public void add(E value) {
+            throw new UnsupportedOperationException("Курсор не изменяет персистентный массив");
+        }
+
+        private E element(int index) {
+            if ((this.leaf == null) || (index < this.leafStart) || (index >= this.leafStart + this.leaf.getCount())) {
+                seek(index);
+            }
+            return (E) this.leaf.get(index - this.leafStart);
+        }
+
+        private void seek(int index) {
+            int offset = tailOffset(this.head);
+            int local = index;
+            Node<E> node;
+            if (local >= offset) {
+                node = this.head.getTail();
+                local -= offset;
+            } else {
+                node = this.head.getRoot();
+                for (int shift = getShift(this.head.getHeight()); shift > 0; shift -= bitsPerNode) {
+                    int id = RRBTree.getChildIndex(node, shift, local);
+                    local -= RRBTree.getChildOffset(node, shift, id);
+                    node = (Node<E>) node.get(id);
+                }
+            }
+            this.leaf = node;
+            this.leafStart = index - local;
+        }
+    }
+
+    /**
+     * Задача параллельного поиска элемента в поддереве персистентного массива.
+     * Левое поддерево просматривается в текущем потоке, остальные передаются в пул; после совпадения
+     * задачи правее него отменяются, а уже начатые пропускают поддеревья правее найденного индекса.
+     */
+    private class IndexOfTask extends RecursiveTask<Integer> {
+
+        /* Версия сериализованной формы задачи */
+        private static final long serialVersionUID = 1L;
+
+        /* Корень поддерева */
+        private final Node<E> node;
+        /* Сдвиг корня поддерева */
+        private final int shift;
+        /* Индекс первого элемента поддерева в массиве */
+        private final int base;
+        /* Искомый элемент */
+        private final Object value;
+        /* Наименьший индекс найденного элемента среди всех задач поиска */
+        private final AtomicInteger found;
+
+        private IndexOfTask(Node<E> node, int shift, int base, Object value, AtomicInteger found) {
+            this.node = node;
+            this.shift = shift;
+            this.base = base;
+            this.value = value;
+            this.found = found;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (this.base > this.found.get()) {
+                return -1;
+            }
+            if ((1L << (this.shift + bitsPerNode)) <= PARALLEL_SCAN_CHUNK) {
+                int index = indexOf(this.node, this.shift, this.value);
+                if (index >= 0) {
+                    this.found.accumulateAndGet(this.base + index, Math::min);
+                }
+                return index;
+            }
+            List<IndexOfTask> tasks = new ArrayList<>(this.node.getCount());
+            for (int i = 0; i < this.node.getCount(); i++) {
+                int offset = RRBTree.getChildOffset(this.node, this.shift, i);
+                tasks.add(new IndexOfTask((Node<E>) this.node.get(i), this.shift - bitsPerNode, this.base + offset, this.value, this.found));
+            }
+            for (int i = 1; i < tasks.size(); i++) {
+                tasks.get(i).fork();
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                int index = (i == 0) ? tasks.get(0).compute() : tasks.get(i).join();
+                if (index >= 0) {
+                    for (int j = i + 1; j < tasks.size(); j++) {
+                        tasks.get(j).cancel(false);
+                    }
+                    return RRBTree.getChildOffset(this.node, this.shift, i) + index;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Транзиентная версия персистентного массива.
+     * Ноды, скопированные в рамках транзиентной версии, помечаются токеном владельца и
+     * изменяются на месте, а в персистентный массив публикуется одна итоговая версия.
+     * @param <E> тип элементов в массиве
+     */
+    public static class Transient<E> {
+
+        /* Персистентный массив, в который будет опубликована итоговая версия */
+        private PArray<E> array;
+        /* Версия персистентного массива, на основе которой создана транзиентная версия */
+        private final Head<E> base;
+        /* Изменяемая версия персистентного массива */
+        private Head<E> head;
+        /* Токен владельца нод; null, если версия уже опубликована */
+        private Object edit;
+
+        private Transient(PArray<E> array) {
+            this.array = array;
+            this.edit = new Object();
+            this.base = array.getHead();
+            this.head = array.newHead();
+            this.head.setSize(this.base.size());
+            this.head.setHeight(this.base.getHeight());
+            this.head.setRoot(this.base.getRoot());
+            this.head.setTail(RRBTree.editable(this.base.getTail(), this.edit));
+        }
+
+        /**
+         * Возвращает количество элементов в транзиентном массиве.
+         * @return количество элементов в транзиентном массиве
+         */
+        public int size() {
+            ensureEditable();
+            return this.head.size();
+        }
+
+        /**
+         * Возвращает из транзиентного массива элемент по индексу.
+         * @param index индекс элемента в транзиентном массиве
+         * @return элемент из транзиентного массива
+         */
+        public E get(int index) {
+            ensureEditable();
+            return this.array.get(this.head, index);
+        }
+
+        /**
+         * Добавляет элемент в конец транзиентного массива.
+         * @param value добавляемый элемент
+         * @return данная транзиентная версия
+         */
+        public Transient<E> add(E value) {
+            ensureEditable();
+            this.array.checkIfFull(this.head);
+            this.array.setParent(value);
+            if (this.head.getTail().isFull()) {
+                this.array.pushTail(this.head, this.edit);
+            }
+            this.head.getTail().add(value);
+            this.head.setSize(this.head.size() + 1);
+            return this;
+        }
+
+        /**
+         * Добавляет все элементы из списка в конец транзиентного массива.
+         * @param values список, содержащий добавляемые элементы
+         * @return данная транзиентная версия
+         */
+        public Transient<E> addAll(List<E> values) {
+            ensureEditable();
+            this.array.checkIfFull(this.head, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                add(values.get(i));
+            }
+            return this;
+        }
+
+        /**
+         * Заменяет элемент из транзиентного массива на новый.
+         * @param index индекс элемента
+         * @param value новый элемент
+         * @return элемент до замены
+         */
+        public E set(int index, E value) {
+            ensureEditable();
+            this.array.checkIndex(this.head, index);
+            this.array.setParent(value);
+            E prevValue = this.array.get(this.head, index);
+            this.array.set(this.head, index, value, this.edit);
+            return prevValue;
+        }
+
+        /**
+         * Публикует транзиентную версию как новую версию персистентного массива.
+         * После вызова транзиентная версия не может быть изменена.
+         * Если текущая версия персистентного массива изменилась после создания транзиентной версии
+         * (добавление, замена, undo или redo), публикация отклоняется, чтобы не потерять эти изменения.
+         * @return персистентный массив, содержащий опубликованную версию
+         * @throws ConcurrentModificationException если текущая версия массива не является версией,
+         * на основе которой создана транзиентная версия
+         */
+        public PArray<E> persistent() {
+            ensureEditable();
+            if (this.array.getHead() != this.base) {
+                throw new ConcurrentModificationException(
+                        "Текущая версия персистентного массива изменилась после создания транзиентной версии");
+            }
+            this.edit = null;
+            this.array.newVersion(this.head);
+            return this.array;
+        }
+
+        private void ensureEditable() {
+            if (this.edit == null) {
+                throw new IllegalStateException("Транзиентная версия персистентного массива уже опубликована");
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package pds;
+
+import pds.SubClasses.CopyPathClasses.DoubleNode;
+import pds.SubClasses.CopyPathClasses.Node;
+
+/**
+ * Персистентный массив чисел с плавающей точкой.
+ * Листья двоичного дерева хранят элементы в массивах double[] без упаковки,
+ * внутренние ноды и механизм undo-redo общие с {@link PArray}.
+ */
+public class PDoubleArray extends PArray<Double> {
+
+    /**
+     * Конструктор класса с ограниченным размером массива.
+     * @param height высота (глубина) двоичного дерева, определяющая максимальный размер массива
+     * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного массива
+     */
+    public PDoubleArray(int height, int bitsPerNode) {
+        super(height, bitsPerNode);
+    }
+
+    /**
+     * Конструктор класса без ограничения размера массива.
+     * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного массива
+     */
+    public PDoubleArray(int bitsPerNode) {
+        super(bitsPerNode);
+    }
+
+    /**
+     * Конструктор класса со значениями по умолчанию (bitsPerNode = 2, без ограничения размера).
+     */
+    public PDoubleArray() {
+        this(2);
+    }
+
+    /**
+     * Конструктор класса.
+     * @param other объект класса PDoubleArray
+     */
+    public PDoubleArray(PDoubleArray other) {
+        super(other);
+    }
+
+    /**
+     * Возвращает из персистентного массива элемент по индексу без упаковки.
+     * @param index индекс элемента в персистентном массиве
+     * @return элемент из персистентного массива
+     */
+    public double getDouble(int index) {
+        return Double.longBitsToDouble(getBits(index));
+    }
+
+    /**
+     * Возвращает элемент по индексу из указанной версии персистентного массива без упаковки и без выполнения undo-redo.
+     * @param version номер версии персистентного массива
+     * @param index индекс элемента в указанной версии
+     * @return элемент из указанной версии персистентного массива
+     */
+    public double getDouble(int version, int index) {
+        return Double.longBitsToDouble(getBits(version, index));
+    }
+
+    @Override
+    public PDoubleArray snapshot(int version) {
+        return (PDoubleArray) super.snapshot(version);
+    }
+
+    @Override
+    public PDoubleArray slice(int from, int to) {
+        return (PDoubleArray) super.slice(from, to);
+    }
+
+    @Override
+    protected Node<Double> newLeaf() {
+        return new DoubleNode(getBitsPerNode());
+    }
+
+    @Override
+    protected PArray<Double> newArray() {
+        return new PDoubleArray(getBitsPerNode());
+    }
+}
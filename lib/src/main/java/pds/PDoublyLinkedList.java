@@ -1,11 +1,20 @@
 package pds;
 
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import pds.SubClasses.CopyPathClasses.HeadList;
+import pds.SubClasses.CopyPathClasses.IntNode;
 import pds.SubClasses.CopyPathClasses.Node;
-import pds.SubClasses.PDoublyLinkedListClasses.ListNode;
+import pds.SubClasses.PDoublyLinkedListClasses.ListLeaf;
 import pds.SubClasses.UndoRedoClasses.UndoRedoDataStructure;
 import pds.SubClasses.UndoRedoClasses.UndoRedoStack;
 
@@ -16,36 +25,49 @@ import pds.SubClasses.UndoRedoClasses.UndoRedoStack;
 @SuppressWarnings("unchecked")
 public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
 
-    /* Высота (глубина) двоичного дерева персистентного списка */
-    private int height;
     /* Число бит на каждую ноду двоичного дерева персистентного списка */
     private int bitsPerNode;
     /* Максимальный размер персистентного списка */
     private int maxSize;
     /* Маска для реализации алгоритма bit partitioning */
     private int mask;
+    /* Число бит на каждую ноду дерева, хранящего порядок элементов */
+    private static final int ORDER_BITS = 5;
+    /* Число ячеек, начиная с которого разреженное двоичное дерево уплотняется автоматически */
+    private static final int COMPACTION_MIN_WIDTH = 64;
+    /* Фабрика листьев дерева, хранящего для каждой версии индексы ячеек элементов в порядке списка */
+    private static final IntFunction<Node<Integer>> ORDER_LEAVES = IntNode::new;
 
     /**
-     * Конструктор класса.
-     * @param height высота (глубина) двоичного дерева персистентного списка
+     * Конструктор класса с ограниченным размером списка.
+     * Высота двоичного дерева растет вместе с числом элементов, но не превышает height.
+     * @param height максимальная высота (глубина) двоичного дерева персистентного списка
      * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного списка
      */
     public PDoublyLinkedList(int height, int bitsPerNode) {
+        this(bitsPerNode);
+        this.maxSize = (int) Math.pow(2, bitsPerNode * height);
+    }
+
+    /**
+     * Конструктор класса без ограничения размера списка.
+     * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного списка
+     */
+    public PDoublyLinkedList(int bitsPerNode) {
         super();
-        this.height = height;
         this.bitsPerNode = bitsPerNode;
-        this.maxSize = (int) Math.pow(2, bitsPerNode * height);
+        this.maxSize = Integer.MAX_VALUE;
         this.mask = (int) Math.pow(2, bitsPerNode) - 1;
-        HeadList<E> HeadList = new HeadList<>(this.bitsPerNode);
-        this.versions = new UndoRedoStack<>(HeadList);
+        HeadList<E> head = newHead();
+        this.versions = new UndoRedoStack<>(head);
         this.changes = new UndoRedoStack<>();
     }
 
     /**
-     * Конструктор класса со значениями по умолчанию (heigth = 3, bitsPerNode = 2).
+     * Конструктор класса со значениями по умолчанию (bitsPerNode = 2, без ограничения размера).
      */
     public PDoublyLinkedList() {
-        this(3, 2);
+        this(2);
     }
 
     /**
@@ -53,7 +75,8 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
      * @param other объект класса PDoublyLinkedList
      */
     public PDoublyLinkedList(PDoublyLinkedList<E> other) {
-        this(other.height, other.bitsPerNode);
+        this(other.bitsPerNode);
+        this.maxSize = other.maxSize;
         this.versions.clone(other.versions);
         this.changes.clone(other.changes);
     }
@@ -64,18 +87,18 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
      */
     public List<Object> toList() {
         List<Object> values;
-        HeadList<ListNode<E>> head = getHead();
+        HeadList<E> head = getHead();
         if (head != null) {
             values = new ArrayList<>(head.getSize());
-            Integer index = head.getFirst();
+            int index = head.getFirst();
             for (int i = 0; i < head.getSize(); i++) {
-                ListNode<E> listElement = getListNode(index);
-                Object value = listElement.getValue();
+                ListLeaf<E> leaf = getLeaf(head, index);
+                Object value = leaf.getValue(index & this.mask);
                 if (value instanceof UndoRedoDataStructure) {
                     value = ((UndoRedoDataStructure) value).toList();
                 }
                 values.add((E) value);
-                index = listElement.getNext();
+                index = leaf.getNext(index & this.mask);
             }
         } else {
             values = new ArrayList<>(0);
@@ -89,10 +112,7 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
      * @return true, если элемент присутствует в персистентом списке; false, иначе
      */
     public boolean contains(Object value) {
-        if (toList().contains(value)) {
-            return true;
-        }
-        return false;
+        return indexOf(value) >= 0;
     }
 
     /**
@@ -101,9 +121,20 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
      * @return индекс элемента в персистентом списке, если присутствует; -1, иначе
      */
     public int indexOf(Object value) {
-        List<Object> values = toList(); 
-        if (values.contains(value)) {
-            return values.indexOf(value);
+        HeadList<E> head = getHead();
+        int index = head.getFirst();
+        ListLeaf<E> leaf = null;
+        int leafBase = 0;
+        for (int i = 0; i < head.getSize(); i++) {
+            int base = index & ~this.mask;
+            if ((leaf == null) || (base != leafBase)) {
+                leaf = getLeaf(head, index);
+                leafBase = base;
+            }
+            if (matches(value, leaf.getValue(index & this.mask))) {
+                return i;
+            }
+            index = leaf.getNext(index & this.mask);
         }
         return -1;
     }
@@ -138,8 +169,44 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
      * @return элемент из персистентного списка
      */
     public E get(int index) {
-        index = getWidthIndex(index);
-        return getListNode(index).getValue();
+        checkListIndex(index);
+        return getValue(getHead(), getWidthIndex(index));
+    }
+
+    /**
+     * Возвращает элемент по индексу из указанной версии персистентного списка без выполнения undo-redo.
+     * @param version номер версии персистентного списка
+     * @param index индекс элемента в указанной версии
+     * @return элемент из указанной версии персистентного списка
+     */
+    public E get(int version, int index) {
+        HeadList<E> head = getHead(version);
+        checkListIndex(head, index);
+        return getValue(head, getWidthIndex(head, index));
+    }
+
+    /**
+     * Возвращает количество элементов в указанной версии персистентного списка.
+     * @param version номер версии персистентного списка
+     * @return количество элементов в указанной версии
+     */
+    public int size(int version) {
+        return getHead(version).getSize();
+    }
+
+    /**
+     * Возвращает новый персистентный список, единственная версия которого совпадает с указанной версией данного списка.
+     * Ноды указанной версии используются повторно без копирования.
+     * @param version номер версии персистентного списка
+     * @return персистентный список, содержащий указанную версию
+     */
+    public PDoublyLinkedList<E> snapshot(int version) {
+        HeadList<E> head = new HeadList<>(this.bitsPerNode);
+        head.clone(getHead(version));
+        PDoublyLinkedList<E> list = new PDoublyLinkedList<>(this.bitsPerNode);
+        list.maxSize = this.maxSize;
+        list.versions = new UndoRedoStack<>(head);
+        return list;
     }
 
     /**
@@ -149,7 +216,7 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
      */
     public boolean add(E value) {
         setParent(value);
-        HeadList<ListNode<E>> head = new HeadList<>(this.bitsPerNode);
+        HeadList<E> head = new HeadList<>(this.bitsPerNode);
         head.clone(getHead());
         checkIfFull(head, 1);
         newVersion(head);
@@ -163,72 +230,38 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
      * @param value добавляемый элемент
      */
     public void add(int index, E value) {
-        HeadList<ListNode<E>> newHead;
-        Node<ListNode<E>> node;
         setParent(value);
-        HeadList<ListNode<E>> oldHead = getHead();
+        HeadList<E> oldHead = getHead();
         checkIfFull();
         checkListIndex(index);
-        if (oldHead.getSize() == 0) {
-            add(value);
-        } else {
-            Integer befIndex = null;
-            Integer aftIndex = null;
-            Integer freeIndex = oldHead.pollEmptyIndex();
-            newHead = new HeadList<>(this.bitsPerNode);
-            newHead.clone(oldHead);
-            if (index != 0) {
-                befIndex = getWidthIndex(newHead, index - 1);
-            }
-            if (index != newHead.getSize()) {
-                aftIndex = getWidthIndex(newHead, index);
-            }
-            if (befIndex != null) {
-                node = copyPath(newHead, befIndex);
-                ListNode<E> befValue = new ListNode<>();
-                befValue.copy((ListNode<E>) node.get()[befIndex & this.mask]);
-                befValue.setNext(freeIndex);
-                node.set(befIndex & this.mask, befValue);
-            } else {
-                newHead.setFirst(freeIndex);
-            }
-            if (aftIndex != null) {
-                oldHead = newHead;
-                newHead = new HeadList<>(this.bitsPerNode);
-                newHead.clone(oldHead);
-                node = copyPath(newHead, aftIndex);
-                ListNode<E> aftValue = new ListNode<>();
-                aftValue.copy((ListNode<E>) node.get()[aftIndex & this.mask]);
-                aftValue.setPrev(freeIndex);
-                node.set(aftIndex & this.mask, aftValue);
-            }
-            ListNode<E> listElement = new ListNode<>(value, befIndex, aftIndex);
-            node = copyPath(newHead, freeIndex);
-            node.set(freeIndex & this.mask, listElement);
-            if (freeIndex == newHead.getWidth()) {
-                newHead.setSize(newHead.getSize() + 1);
-                newHead.setWidth(newHead.getWidth() + 1);
-            } else {
-                newHead.setSize(newHead.getSize() + 1);
-            }
-            newVersion(newHead); 
-        }
+        int befIndex = (index != 0) ? getWidthIndex(oldHead, index - 1) : ListLeaf.NONE;
+        int aftIndex = getWidthIndex(oldHead, index);
+        newVersion(insert(oldHead, index, befIndex, aftIndex, value));
     }
 
     /**
      * Добавляет все элементы из списка в конец персистентного списка.
+     * Сначала занимаются освободившиеся ячейки, остальные элементы размещаются в ячейках за последней
+     * занятой: новые листья и внутренние ноды строятся за один проход, копируется только правая граница дерева.
      * @param values список, содержащий добавляемые элементы
      * @return true, если все элементы из списка были добавлены в персистентный список
      */
     public boolean addAll(List<E> values) {
-        HeadList<ListNode<E>> head = new HeadList<>(this.bitsPerNode);
-        checkIfFull(head, values.size());
+        HeadList<E> head = new HeadList<>(this.bitsPerNode);
         head.clone(getHead());
+        checkIfFull(head, values.size());
         newVersion(head);
-        for (int i = 0; i < values.size(); i++) {
-            E value = values.get(i);
-            setParent(value);
-            add(head, value);
+        Object[] content = values.toArray();
+        int from = Math.min(content.length, head.getEmptyIndexes().size());
+        for (int i = 0; i < from; i++) {
+            setParent(content[i]);
+            add(head, (E) content[i]);
+        }
+        if (from < content.length) {
+            for (int i = from; i < content.length; i++) {
+                setParent(content[i]);
+            }
+            append(head, content, from);
         }
         return true;
     }
@@ -241,10 +274,10 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
      */
     public E set(int index, E value) {
         setParent(value);
-        HeadList<ListNode<E>> oldHead = getHead();
+        HeadList<E> oldHead = getHead();
         checkIfEmpty(oldHead);
         checkListIndex(oldHead, index);
-        HeadList<ListNode<E>> newHead = new HeadList<>(this.bitsPerNode);
+        HeadList<E> newHead = new HeadList<>(this.bitsPerNode);
         newHead.clone(oldHead);
         newVersion(newHead);
         E prevValue = get(index);
@@ -258,67 +291,180 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
      * @return удаленный из персистентного списка элемент
      */
     public E remove(int index) {
-        HeadList<ListNode<E>> oldHead = getHead();
+        HeadList<E> oldHead = getHead();
         checkListIndex(oldHead, index);
-        HeadList<ListNode<E>> newHead;
-        Node<ListNode<E>> node;
         E result = get(index);
-        if (oldHead.getSize() == 1) {
-            clear();
+        newVersion(delete(oldHead, index, getWidthIndex(oldHead, index)));
+        return result;
+    }
+
+    /**
+     * Добавляет элемент в начало персистентного списка.
+     * Соседний элемент находится по ссылке на первый элемент без поиска по индексу.
+     * @param value добавляемый элемент
+     */
+    public void addFirst(E value) {
+        setParent(value);
+        HeadList<E> head = getHead();
+        checkIfFull(head, 1);
+        newVersion(insert(head, 0, ListLeaf.NONE, head.getFirst(), value));
+    }
+
+    /**
+     * Добавляет элемент в конец персистентного списка.
+     * Соседний элемент находится по ссылке на последний элемент без поиска по индексу.
+     * @param value добавляемый элемент
+     */
+    public void addLast(E value) {
+        setParent(value);
+        HeadList<E> head = getHead();
+        checkIfFull(head, 1);
+        newVersion(insert(head, head.getSize(), head.getLast(), ListLeaf.NONE, value));
+    }
+
+    /**
+     * Удаляет первый элемент персистентного списка.
+     * @return удаленный элемент
+     */
+    public E removeFirst() {
+        checkIfEmpty(getHead());
+        return pollFirst();
+    }
+
+    /**
+     * Удаляет последний элемент персистентного списка.
+     * @return удаленный элемент
+     */
+    public E removeLast() {
+        checkIfEmpty(getHead());
+        return pollLast();
+    }
+
+    /**
+     * Удаляет первый элемент персистентного списка, если список не пуст.
+     * @return удаленный элемент; null, если список пуст
+     */
+    public E pollFirst() {
+        HeadList<E> head = getHead();
+        if (isEmpty(head)) {
+            return null;
+        }
+        E result = getValue(head, head.getFirst());
+        newVersion(delete(head, 0, head.getFirst()));
+        return result;
+    }
+
+    /**
+     * Удаляет последний элемент персистентного списка, если список не пуст.
+     * @return удаленный элемент; null, если список пуст
+     */
+    public E pollLast() {
+        HeadList<E> head = getHead();
+        if (isEmpty(head)) {
+            return null;
+        }
+        E result = getValue(head, head.getLast());
+        newVersion(delete(head, head.getSize() - 1, head.getLast()));
+        return result;
+    }
+
+    /**
+     * Возвращает первый элемент персистентного списка.
+     * @return первый элемент; null, если список пуст
+     */
+    public E peekFirst() {
+        HeadList<E> head = getHead();
+        return isEmpty(head) ? null : getValue(head, head.getFirst());
+    }
+
+    /**
+     * Возвращает последний элемент персистентного списка.
+     * @return последний элемент; null, если список пуст
+     */
+    public E peekLast() {
+        HeadList<E> head = getHead();
+        return isEmpty(head) ? null : getValue(head, head.getLast());
+    }
+
+    /**
+     * Добавляет все элементы другого персистентного списка в конец данного списка.
+     * Ноды большего из двух списков используются повторно, а элементы меньшего размещаются в ячейках
+     * за последней занятой: новые листья и внутренние ноды строятся за один проход. Ссылки между элементами
+     * и вектор порядка хранят абсолютные номера ячеек, поэтому ноды меньшего списка не могут быть подвешены
+     * без перенумерации, и объединение списков размеров n и m выполняется за O(min(n, m) + log(n + m)).
+     * Вложенные структуры данных сохраняют связь с исходным списком для механизма undo-redo.
+     * @param other персистентный список, содержащий добавляемые элементы
+     */
+    public void concat(PDoublyLinkedList<E> other) {
+        HeadList<E> head = getHead();
+        HeadList<E> otherHead = other.getHead();
+        checkIfFull(head, otherHead.getSize());
+        HeadList<E> newHead = new HeadList<>(this.bitsPerNode);
+        boolean shared = (other.bitsPerNode == this.bitsPerNode);
+        if (isEmpty(head) && shared) {
+            newHead.clone(otherHead);
+        } else if (!isEmpty(head) && shared && (head.getSize() < otherHead.getSize())) {
+            newHead.clone(otherHead);
+            prepend(newHead, values(head, 0, head.getSize()));
         } else {
-            Integer befIndex = null;
-            Integer aftIndex = null;
-            ListNode<E> befValue;
-            ListNode<E> aftValue;
-            newHead = new HeadList<>(this.bitsPerNode);
-            newHead.clone(oldHead);
-            Integer widthIndex = getWidthIndex(newHead, index);
-            if (index != 0) {
-                befIndex = getWidthIndex(newHead, index - 1);
-            }
-            if (index != newHead.getSize() - 1) {
-                aftIndex = getWidthIndex(newHead, index + 1);
-            }
-            if (befIndex != null) {
-                node = copyPath(newHead, befIndex);
-                befValue = new ListNode<>();
-                befValue.copy((ListNode<E>) node.get()[befIndex & this.mask]);
-                befValue.setNext(aftIndex);
-                node.set(befIndex & this.mask, befValue);
-            } else {
-                newHead.setFirst(aftIndex);
+            newHead.clone(head);
+            if (!isEmpty(otherHead)) {
+                append(newHead, other.values(otherHead, 0, otherHead.getSize()), 0);
             }
-            if (aftIndex != null) {
-                oldHead = newHead;
-                newHead = new HeadList<>(this.bitsPerNode);
-                newHead.clone(oldHead);
-                node = copyPath(newHead, aftIndex);
-                aftValue = new ListNode<>();
-                aftValue.copy((ListNode<E>) node.get()[aftIndex & this.mask]);
-                aftValue.setPrev(befIndex);
-                node.set(aftIndex & this.mask, aftValue);
-            } else {
-                newHead.setLast(befIndex);
-            }
-            node = copyPath(newHead, widthIndex);
-            node.set(widthIndex & this.mask, null);
-            if (widthIndex != newHead.getWidth()) {
-                newHead.addEmptyIndex(widthIndex);
-                newHead.setSize(newHead.getSize() - 1);
-            } else {
-                newHead.setSize(newHead.getSize() - 1);
-                newHead.setWidth(newHead.getWidth() - 1);
-            }
-            newVersion(newHead);
         }
-        return result;
+        newVersion(newHead);
+    }
+
+    /**
+     * Разделяет персистентный список по индексу.
+     * Новая версия данного списка содержит элементы до индекса, новый список - элементы начиная с индекса.
+     * Большая часть использует ноды текущей версии, в которых копируются только пути к листьям освобождаемых ячеек,
+     * а меньшая переносится в новые листья и внутренние ноды, которые строятся за один проход.
+     * Ссылки между элементами хранят абсолютные номера ячеек, поэтому разделение списка размера n по индексу k
+     * выполняется за O(min(k, n - k) + log n).
+     * Если индекс равен размеру списка, новая версия данного списка не создается, а новый список пуст.
+     * Вложенные структуры данных сохраняют связь с исходным списком для механизма undo-redo.
+     * @param index индекс первого элемента, переносимого в новый список
+     * @return персистентный список, содержащий элементы начиная с индекса
+     */
+    public PDoublyLinkedList<E> splitAt(int index) {
+        HeadList<E> head = getHead();
+        if ((index < 0) || (index > head.getSize())) {
+            throw new IndexOutOfBoundsException("Неверный индекс элемента в персистентном списке");
+        }
+        HeadList<E> suffix = newHead();
+        if ((index == 0) && !isEmpty(head)) {
+            suffix.clone(head);
+            newVersion(newHead());
+        } else if (index * 2 < head.getSize()) {
+            HeadList<E> prefix = newHead();
+            append(prefix, values(head, 0, index), 0);
+            suffix = skip(head, index);
+            newVersion(prefix);
+        } else if (index < head.getSize()) {
+            append(suffix, values(head, index, head.getSize()), 0);
+            newVersion(truncate(head, index));
+        }
+        PDoublyLinkedList<E> list = new PDoublyLinkedList<>(this.bitsPerNode);
+        list.maxSize = this.maxSize;
+        list.versions = new UndoRedoStack<>(suffix);
+        return list;
+    }
+
+    /**
+     * Уплотняет хранение элементов персистентного списка, создавая новую версию.
+     * Элементы перекладываются в ячейки 0..size-1 в порядке списка, пустые ячейки освобождаются.
+     * {@link #remove(int) remove} выполняет уплотнение автоматически, когда занято меньше четверти ячеек.
+     */
+    public void compact() {
+        newVersion(compact(getHead()));
     }
 
     /**
      * Удаляет все элементы из персистентного списка.
      */
     public void clear() {
-        HeadList<ListNode<E>> head = new HeadList<>(this.bitsPerNode);
+        HeadList<E> head = newHead();
         newVersion(head);
     }
     
@@ -339,11 +485,11 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
     }
 
     /**
-     * Возвращает высоту (глубину) двоичного дерева персистентного списка.
+     * Возвращает высоту (глубину) двоичного дерева текущей версии персистентного списка.
      * @return высота двоичного дерева
      */
     public int getheight() {
-        return this.height;
+        return getHead().getHeight();
     }
 
     /**
@@ -352,17 +498,17 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
      */
     public List<Object> toArray() {
         List<Object> values;
-        HeadList<ListNode<E>> head = getHead();
+        HeadList<E> head = getHead();
         if (head != null) {
-            Object[] leafNodeValues;
+            ListLeaf<E> leaf;
             values = new ArrayList<>(head.getWidth());
             for (int i = 0; i < head.getWidth(); i = i + this.mask + 1) {
-                leafNodeValues = getLeafNodeValues(head, i);
+                leaf = getLeaf(head, i);
                 for (int j = 0; j < this.mask + 1; j++) {
-                    if (leafNodeValues[j] == null) {
+                    if (!leaf.isUsed(j)) {
                         values.add(null);
                     } else {
-                        Object value = ((ListNode<E>) leafNodeValues[j]).getValue();
+                        Object value = leaf.getValue(j);
                         if (value instanceof UndoRedoDataStructure) {
                             value = ((UndoRedoDataStructure) value).toList();
                         }
@@ -376,116 +522,458 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
         return values;  
     }
 
-    private Node<ListNode<E>> copyPath(HeadList<ListNode<E>> head, int index) {
+    /**
+     * Возвращает хэш-код текущей версии персистентного списка, совпадающий с хэш-кодом списка {@link #toList() toList}.
+     * Хэш-код вычисляется один раз для каждой версии; версии с вложенными структурами данных не кэшируют его,
+     * так как те изменяются на месте.
+     * @return хэш-код персистентного списка
+     */
+    @Override
+    public int hashCode() {
+        HeadList<E> head = getHead();
+        if (head.getHash() != null) {
+            return head.getHash();
+        }
+        int hash = 1;
+        boolean stable = true;
+        Spliterator<E> spliterator = new ChainSpliterator(head);
+        Object[] value = new Object[1];
+        while (spliterator.tryAdvance(element -> value[0] = element)) {
+            hash = 31 * hash + hash(value[0]);
+            stable = stable && !(value[0] instanceof UndoRedoDataStructure);
+        }
+        if (stable) {
+            head.setHash(hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Сравнивает текущие версии двух персистентных списков поэлементно.
+     * Версии, разделяющие листья двоичного дерева вместе со ссылками между элементами и первый элемент,
+     * считаются равными без обхода, а списки с разными уже вычисленными хэш-кодами - различными.
+     * @param other объект для сравнения
+     * @return true, если другой объект является персистентным списком с теми же элементами; false, иначе
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PDoublyLinkedList)) {
+            return false;
+        }
+        PDoublyLinkedList<E> list = (PDoublyLinkedList<E>) other;
+        HeadList<E> head = getHead();
+        HeadList<E> otherHead = list.getHead();
+        if (head.getSize() != otherHead.getSize()) {
+            return false;
+        }
+        if (sharesSlots(head, otherHead)) {
+            return true;
+        }
+        if ((head.getHash() != null) && (otherHead.getHash() != null) && !head.getHash().equals(otherHead.getHash())) {
+            return false;
+        }
+        Spliterator<E> left = new ChainSpliterator(head);
+        Spliterator<E> right = list.new ChainSpliterator(otherHead);
+        Object[] values = new Object[2];
+        while (left.tryAdvance(element -> values[0] = element)) {
+            right.tryAdvance(element -> values[1] = element);
+            if (!same(values[0], values[1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает сплитератор по элементам текущей версии персистентного списка.
+     * Сплитератор следует по ссылкам между элементами без копирования списка и читает
+     * соседние по дереву элементы из одного листа; при разделении делит диапазон позиций пополам.
+     * @return сплитератор по элементам персистентного списка
+     */
+    public Spliterator<E> spliterator() {
+        return new ChainSpliterator(getHead());
+    }
+
+    /**
+     * Возвращает последовательный поток элементов текущей версии персистентного списка.
+     * @return поток элементов персистентного списка
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Возвращает курсор по элементам текущей версии персистентного списка, начиная с первого элемента.
+     * @return курсор по элементам персистентного списка
+     */
+    public Cursor cursor() {
+        return cursor(0);
+    }
+
+    /**
+     * Возвращает курсор по элементам текущей версии персистентного списка, начиная с указанного индекса.
+     * @param index индекс первого элемента, возвращаемого {@link Cursor#next() next}
+     * @return курсор по элементам персистентного списка
+     */
+    public Cursor cursor(int index) {
+        HeadList<E> head = getHead();
+        if ((index < 0) || (index > head.getSize())) {
+            throw new IndexOutOfBoundsException("Неверный индекс элемента в персистентном списке");
+        }
+        return new Cursor(head, index);
+    }
+
+    private ListLeaf<E> copyPath(HeadList<E> head, int index) {
         Node<E> newNode;
-        Node<ListNode<E>> currentNode = head.getRoot();
-        for (int level = (this.height - 1) * this.bitsPerNode; level > 0; level -= this.bitsPerNode) {
+        while (index >= getCapacity(head.getHeight())) {
+            Node<E> root = new Node<>(this.bitsPerNode);
+            root.add(head.getRoot());
+            head.setRoot(root);
+            head.setHeight(head.getHeight() + 1);
+        }
+        Node<E> currentNode = head.getRoot();
+        for (int level = (head.getHeight() - 1) * this.bitsPerNode; level > 0; level -= this.bitsPerNode) {
             int id = (index >> level) & this.mask;
             if (currentNode.isEmpty()) {
-                newNode = new Node<>(this.bitsPerNode);
+                newNode = newNode(level - this.bitsPerNode);
                 currentNode.add(newNode);
             } else {
                 if (id == currentNode.getCount()) {
-                    newNode = new Node<>(this.bitsPerNode);
+                    newNode = newNode(level - this.bitsPerNode);
                     currentNode.add(newNode);
                 } else {
-                    newNode = new Node<>(this.bitsPerNode);
-
-                    newNode.clone((Node<E>) currentNode.get(id));
+                    newNode = ((Node<E>) currentNode.get(id)).copy();
                     currentNode.set(id, newNode);
                 }
             }
-            currentNode = (Node<ListNode<E>>) newNode;
+            currentNode = newNode;
         }
-        return currentNode;
+        return (ListLeaf<E>) currentNode;
     }
 
-    private Integer getWidthIndex(int index) {
+    private Node<E> newNode(int level) {
+        if (level == 0) {
+            return new ListLeaf<>(this.bitsPerNode);
+        }
+        return new Node<>(this.bitsPerNode);
+    }
+
+    private int getWidthIndex(int index) {
         return getWidthIndex(getHead(), index);
     }
 
-    private Integer getWidthIndex(HeadList<ListNode<E>> head, int index) {
-        if (head.getSize() == 0) {
-            return null;
-        }
-        Integer currentIndex = head.getFirst();
-        for (int i = 0; i < index; i++) {
-            currentIndex = getListNode(currentIndex).getNext();
-        }
-        return currentIndex;
+    private int getWidthIndex(HeadList<E> head, int index) {
+        return (int) RRBTree.getBits(ORDER_BITS, head.getOrder(), index);
     }
 
-    private void add(HeadList<ListNode<E>> head, E value) {
-        ListNode<E> listElement;
+    private void add(HeadList<E> head, E value) {
         if (isEmpty(head)) {
             head.setFirst(0);
             head.setLast(0);
-            listElement = new ListNode<>(value, null, null);
             head.setSize(head.getSize() + 1);
             head.setWidth(head.getWidth() + 1);
-            Node<ListNode<E>> node = copyPath(head, head.getLast());
-            node.add(listElement);
+            copyPath(head, head.getLast()).put(0, value, ListLeaf.NONE, ListLeaf.NONE);
+            head.setOrder(RRBTree.insert(ORDER_BITS, ORDER_LEAVES, head.getOrder(), 0, 0));
         } else {
-            Integer lastIndex = head.getLast();
-            listElement = new ListNode<>(value, lastIndex, null);
-            Node<ListNode<E>> node = copyPath(head, lastIndex);
-            ListNode<E> last = new ListNode<>();
-            last.copy((ListNode<E>) node.get()[lastIndex & this.mask]);
-            node.set(lastIndex & this.mask, last);
-            Integer newIndex = head.pollEmptyIndex();
-            last.setNext(newIndex);
-            node = copyPath(head, newIndex);
+            int lastIndex = head.getLast();
+            int newIndex = head.pollEmptyIndex();
+            copyPath(head, lastIndex).setNext(lastIndex & this.mask, newIndex);
+            copyPath(head, newIndex).put(newIndex & this.mask, value, lastIndex, ListLeaf.NONE);
             head.setLast(newIndex);
             if (newIndex == head.getWidth()) {
-                node.add(listElement);
                 head.setSize(head.getSize() + 1);
                 head.setWidth(head.getWidth() + 1);
             } else {
-                node.set(newIndex & this.mask, listElement);
                 head.setSize(head.getSize() + 1);
             }
+            head.setOrder(RRBTree.insert(ORDER_BITS, ORDER_LEAVES, head.getOrder(), head.getOrder().size(), newIndex));
+        }
+    }
+
+    private HeadList<E> insert(HeadList<E> oldHead, int index, int befIndex, int aftIndex, E value) {
+        HeadList<E> newHead = new HeadList<>(this.bitsPerNode);
+        newHead.clone(oldHead);
+        int freeIndex = newHead.pollEmptyIndex();
+        if (befIndex != ListLeaf.NONE) {
+            copyPath(newHead, befIndex).setNext(befIndex & this.mask, freeIndex);
+        } else {
+            newHead.setFirst(freeIndex);
+        }
+        if (aftIndex != ListLeaf.NONE) {
+            copyPath(newHead, aftIndex).setPrev(aftIndex & this.mask, freeIndex);
+        } else {
+            newHead.setLast(freeIndex);
+        }
+        copyPath(newHead, freeIndex).put(freeIndex & this.mask, value, befIndex, aftIndex);
+        if (freeIndex == newHead.getWidth()) {
+            newHead.setSize(newHead.getSize() + 1);
+            newHead.setWidth(newHead.getWidth() + 1);
+        } else {
+            newHead.setSize(newHead.getSize() + 1);
+        }
+        newHead.setOrder(RRBTree.insert(ORDER_BITS, ORDER_LEAVES, newHead.getOrder(), index, freeIndex));
+        return newHead;
+    }
+
+    private HeadList<E> delete(HeadList<E> oldHead, int index, int widthIndex) {
+        if (oldHead.getSize() == 1) {
+            return newHead();
+        }
+        HeadList<E> newHead = new HeadList<>(this.bitsPerNode);
+        newHead.clone(oldHead);
+        ListLeaf<E> leaf = getLeaf(oldHead, widthIndex);
+        int befIndex = leaf.getPrev(widthIndex & this.mask);
+        int aftIndex = leaf.getNext(widthIndex & this.mask);
+        if (befIndex != ListLeaf.NONE) {
+            copyPath(newHead, befIndex).setNext(befIndex & this.mask, aftIndex);
+        } else {
+            newHead.setFirst(aftIndex);
+        }
+        if (aftIndex != ListLeaf.NONE) {
+            copyPath(newHead, aftIndex).setPrev(aftIndex & this.mask, befIndex);
+        } else {
+            newHead.setLast(befIndex);
+        }
+        copyPath(newHead, widthIndex).free(widthIndex & this.mask);
+        if (widthIndex != newHead.getWidth()) {
+            newHead.addEmptyIndex(widthIndex);
+            newHead.setSize(newHead.getSize() - 1);
+        } else {
+            newHead.setSize(newHead.getSize() - 1);
+            newHead.setWidth(newHead.getWidth() - 1);
         }
+        newHead.setOrder(RRBTree.delete(ORDER_BITS, ORDER_LEAVES, newHead.getOrder(), index));
+        if (isSparse(newHead)) {
+            newHead = compact(newHead);
+        }
+        return newHead;
     }
 
-    private void set(HeadList<ListNode<E>> head, int index, E value) {
-        Node<ListNode<E>> leafNode = copyPath(head, getWidthIndex(head, index));
-        ListNode<E> newNode = new ListNode<>();
-        newNode.copy((ListNode<E>) leafNode.get()[index & this.mask]);
-        newNode.setValue(value);
-        leafNode.set(index & this.mask, newNode);
+    private void append(HeadList<E> head, Object[] values, int from) {
+        int start = head.getWidth();
+        int end = start + values.length - from;
+        int prev = head.getLast();
+        if (prev != ListLeaf.NONE) {
+            copyPath(head, prev).setNext(prev & this.mask, start);
+        } else {
+            head.setFirst(start);
+        }
+        place(head, values, from, prev, ListLeaf.NONE);
+        head.setOrder(RRBTree.addAll(ORDER_BITS, ORDER_LEAVES, head.getOrder(), slots(start, end)));
+        head.setLast(end - 1);
+    }
+
+    private void prepend(HeadList<E> head, Object[] values) {
+        int start = head.getWidth();
+        int end = start + values.length;
+        int next = head.getFirst();
+        copyPath(head, next).setPrev(next & this.mask, end - 1);
+        place(head, values, 0, ListLeaf.NONE, next);
+        head.setOrder(RRBTree.addAllFirst(ORDER_BITS, ORDER_LEAVES, head.getOrder(), slots(start, end)));
+        head.setFirst(start);
+    }
+
+    private void place(HeadList<E> head, Object[] values, int from, int prev, int next) {
+        int start = head.getWidth();
+        int end = start + values.length - from;
+        while (end - 1 >= getCapacity(head.getHeight())) {
+            Node<E> root = new Node<>(this.bitsPerNode);
+            root.add(head.getRoot());
+            head.setRoot(root);
+            head.setHeight(head.getHeight() + 1);
+        }
+        head.setRoot(append(head.getRoot(), (head.getHeight() - 1) * this.bitsPerNode, 0, values, from - start, prev, next, start, end));
+        head.setSize(head.getSize() + end - start);
+        head.setWidth(end);
+    }
+
+    private static Object[] slots(int start, int end) {
+        Object[] slots = new Object[end - start];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = start + i;
+        }
+        return slots;
     }
 
-    private ListNode<E> getListNode(int index) {
-        HeadList<ListNode<E>> head = getHead();
-        return getListNode(head, index);
+    private Node<E> append(Node<E> node, int level, int base, Object[] values, int offset, int last, int after, int start, int end) {
+        Node<E> newNode = (node != null) ? node.copy() : newNode(level);
+        if (level == 0) {
+            ListLeaf<E> leaf = (ListLeaf<E>) newNode;
+            for (int index = Math.max(base, start); (index < end) && (index <= base + this.mask); index++) {
+                E value = (E) values[index + offset];
+                int prev = (index == start) ? last : index - 1;
+                int next = (index == end - 1) ? after : index + 1;
+                leaf.put(index & this.mask, value, prev, next);
+            }
+            return leaf;
+        }
+        int first = (Math.max(base, start) - base) >> level;
+        for (int id = first; id <= this.mask; id++) {
+            int childBase = base + (id << level);
+            if (childBase >= end) {
+                break;
+            }
+            Node<E> child = (id < newNode.getCount()) ? (Node<E>) newNode.get(id) : null;
+            child = append(child, level - this.bitsPerNode, childBase, values, offset, last, after, start, end);
+            if (id < newNode.getCount()) {
+                newNode.set(id, child);
+            } else {
+                newNode.add(child);
+            }
+        }
+        return newNode;
     }
 
-    private ListNode<E> getListNode(HeadList<ListNode<E>> head, int index) {
-        return (ListNode<E>) getLeafNodeValues(head, index)[index & this.mask];
+    private void set(HeadList<E> head, int index, E value) {
+        int widthIndex = getWidthIndex(head, index);
+        copyPath(head, widthIndex).set(widthIndex & this.mask, value);
     }
 
-    private Object[] getLeafNodeValues(HeadList<ListNode<E>> head, int index) {
-        return getLeafNode(head, index).get();
+    private E getValue(HeadList<E> head, int index) {
+        return getLeaf(head, index).getValue(index & this.mask);
     }
 
-    private Node<ListNode<E>> getLeafNode(HeadList<ListNode<E>> head, int index) {
-            Node<ListNode<E>> node = head.getRoot();
-        for (int level = this.bitsPerNode * (this.height - 1); level > 0; level -= this.bitsPerNode) {
+    private ListLeaf<E> getLeaf(HeadList<E> head, int index) {
+        Node<E> node = head.getRoot();
+        for (int level = this.bitsPerNode * (head.getHeight() - 1); level > 0; level -= this.bitsPerNode) {
             int id = (index >> level) & this.mask;
-            node = (Node<ListNode<E>>) node.get(id);
+            node = (Node<E>) node.get(id);
+        }
+        return (ListLeaf<E>) node;
+    }
+
+    private boolean sharesSlots(HeadList<E> head, HeadList<E> other) {
+        if ((head == other) || (head.getSize() == 0)) {
+            return true;
+        }
+        if ((head.getBitsPerNode() != other.getBitsPerNode()) || (head.getHeight() != other.getHeight())
+            || (head.getFirst() != other.getFirst())
+            || (head.getRoot().getCount() != other.getRoot().getCount())) {
+            return false;
+        }
+        if (head.getHeight() == 1) {
+            return head.getRoot() == other.getRoot();
+        }
+        for (int i = 0; i <= this.mask; i++) {
+            if (head.getRoot().get(i) != other.getRoot().get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private HeadList<E> compact(HeadList<E> head) {
+        HeadList<E> newHead = newHead();
+        if (head.getSize() > 0) {
+            append(newHead, values(head, 0, head.getSize()), 0);
+        }
+        return newHead;
+    }
+
+    private HeadList<E> truncate(HeadList<E> oldHead, int size) {
+        if (size == 0) {
+            return newHead();
+        }
+        HeadList<E> newHead = new HeadList<>(this.bitsPerNode);
+        newHead.clone(oldHead);
+        int slot = newHead.getLast();
+        ListLeaf<E> leaf = null;
+        int leafBase = 0;
+        for (int i = newHead.getSize() - 1; i >= size; i--) {
+            if ((leaf == null) || ((slot & ~this.mask) != leafBase)) {
+                leaf = copyPath(newHead, slot);
+                leafBase = slot & ~this.mask;
+            }
+            int prev = leaf.getPrev(slot & this.mask);
+            leaf.free(slot & this.mask);
+            newHead.addEmptyIndex(slot);
+            slot = prev;
+        }
+        copyPath(newHead, slot).setNext(slot & this.mask, ListLeaf.NONE);
+        newHead.setLast(slot);
+        newHead.setSize(size);
+        newHead.setOrder(RRBTree.takeFirst(ORDER_BITS, ORDER_LEAVES, newHead.getOrder(), size));
+        if (isSparse(newHead)) {
+            newHead = compact(newHead);
+        }
+        return newHead;
+    }
+
+    private HeadList<E> skip(HeadList<E> oldHead, int count) {
+        if (count == oldHead.getSize()) {
+            return newHead();
+        }
+        HeadList<E> newHead = new HeadList<>(this.bitsPerNode);
+        newHead.clone(oldHead);
+        int slot = newHead.getFirst();
+        ListLeaf<E> leaf = null;
+        int leafBase = 0;
+        for (int i = 0; i < count; i++) {
+            if ((leaf == null) || ((slot & ~this.mask) != leafBase)) {
+                leaf = copyPath(newHead, slot);
+                leafBase = slot & ~this.mask;
+            }
+            int next = leaf.getNext(slot & this.mask);
+            leaf.free(slot & this.mask);
+            newHead.addEmptyIndex(slot);
+            slot = next;
+        }
+        copyPath(newHead, slot).setPrev(slot & this.mask, ListLeaf.NONE);
+        newHead.setFirst(slot);
+        newHead.setSize(newHead.getSize() - count);
+        newHead.setOrder(RRBTree.dropFirst(ORDER_BITS, ORDER_LEAVES, newHead.getOrder(), count));
+        if (isSparse(newHead)) {
+            newHead = compact(newHead);
+        }
+        return newHead;
+    }
+
+    private Object[] values(HeadList<E> head, int from, int to) {
+        Object[] values = new Object[to - from];
+        if (values.length > 0) {
+            Spliterator<E> spliterator = new ChainSpliterator(head, getWidthIndex(head, from), from, to);
+            for (int i = 0; i < values.length; i++) {
+                int index = i;
+                spliterator.tryAdvance(value -> values[index] = value);
+            }
+        }
+        return values;
+    }
+
+    private boolean isSparse(HeadList<E> head) {
+        return (head.getWidth() >= COMPACTION_MIN_WIDTH) && (head.getSize() * 4 < head.getWidth());
+    }
+
+    private HeadList<E> newHead() {
+        HeadList<E> head = new HeadList<>(this.bitsPerNode);
+        head.setRoot(new ListLeaf<>(this.bitsPerNode));
+        head.setOrder(RRBTree.newHead(ORDER_BITS, ORDER_LEAVES));
+        return head;
+    }
+
+    private int getCapacity(int height) {
+        if (this.bitsPerNode * height >= Integer.SIZE - 1) {
+            return Integer.MAX_VALUE;
         }
-        return node;
+        return 1 << (this.bitsPerNode * height);
     }
 
-    private HeadList<ListNode<E>> getHead() {
-        return (HeadList<ListNode<E>>) this.versions.getCurrent();
+    private HeadList<E> getHead() {
+        return (HeadList<E>) this.versions.getCurrent();
     }
 
-    private boolean isEmpty(HeadList<ListNode<E>> head) {
+    private HeadList<E> getHead(int version) {
+        return (HeadList<E>) getVersion(version);
+    }
+
+    private boolean isEmpty(HeadList<E> head) {
         return head.getSize() == 0;
     }
 
-    private boolean isFull(HeadList<ListNode<E>> head, int extra) {
+    private boolean isFull(HeadList<E> head, int extra) {
         return head.getSize() + extra >= maxSize;
     }
 
@@ -496,13 +984,13 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
         }
     }
 
-    private void checkIfFull(HeadList<ListNode<E>> HeadArray, int delta) {
+    private void checkIfFull(HeadList<E> HeadArray, int delta) {
         if (HeadArray.getSize() + delta > this.maxSize) {
             throw new IllegalStateException("Достигнуто максимальное число элементов в персистентном списке");
         }
     }
 
-    public void checkIfEmpty(HeadList<ListNode<E>> head) {
+    public void checkIfEmpty(HeadList<E> head) {
         if (head.getSize() == 0) {
             throw new IllegalStateException("Персистентный список пуст");
         }
@@ -512,10 +1000,249 @@ public class PDoublyLinkedList<E> extends UndoRedoDataStructure {
         checkListIndex(getHead(), index);
     }
 
-    private void checkListIndex(HeadList<ListNode<E>> head, int index) {
+    private void checkListIndex(HeadList<E> head, int index) {
         if ((index < 0) || (index >= head.getSize())) {
-            throw new IndexOutOfBoundsException("Неверный индекс элемента в персистентном массиве");
+            throw new IndexOutOfBoundsException("Неверный индекс элемента в персистентном списке");
+        }
+    }
+
+    /**
+     * Курсор по элементам персистентного списка.
+     * Курсор хранит индексы ячеек соседних элементов в двоичном дереве, поэтому перемещение курсора
+     * не ищет элементы по индексу, а вставка, замена и удаление в позиции курсора копируют только пути
+     * к листьям затронутых элементов. Каждое изменение создает новую версию персистентного списка.
+     * Курсор читает версию, на которой он создан или которую создал последним изменением;
+     * изменять список через курсор можно, только пока эта версия является текущей.
+     */
+    public class Cursor implements ListIterator<E> {
+
+        /* Версия персистентного списка, по которой перемещается курсор */
+        private HeadList<E> head;
+        /* Индекс ячейки элемента, возвращаемого следующим вызовом next */
+        private int nextSlot;
+        /* Индекс ячейки элемента, возвращаемого следующим вызовом previous */
+        private int prevSlot;
+        /* Позиция элемента, возвращаемого следующим вызовом next */
+        private int position;
+        /* Индекс ячейки последнего возвращенного элемента */
+        private int lastSlot;
+        /* Позиция последнего возвращенного элемента */
+        private int lastPosition;
+
+        private Cursor(HeadList<E> head, int position) {
+            this.head = head;
+            this.position = position;
+            this.lastSlot = ListLeaf.NONE;
+            seek();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.position < this.head.getSize();
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int slot = this.nextSlot;
+            ListLeaf<E> leaf = getLeaf(this.head, slot);
+            this.prevSlot = slot;
+            this.nextSlot = leaf.getNext(slot & mask);
+            this.lastSlot = slot;
+            this.lastPosition = this.position;
+            this.position++;
+            return leaf.getValue(slot & mask);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return this.position > 0;
+        }
+
+        @Override
+        public E previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            int slot = this.prevSlot;
+            ListLeaf<E> leaf = getLeaf(this.head, slot);
+            this.nextSlot = slot;
+            this.prevSlot = leaf.getPrev(slot & mask);
+            this.lastSlot = slot;
+            this.position--;
+            this.lastPosition = this.position;
+            return leaf.getValue(slot & mask);
+        }
+
+        @Override
+        public int nextIndex() {
+            return this.position;
+        }
+
+        @Override
+        public int previousIndex() {
+            return this.position - 1;
+        }
+
+        /**
+         * Удаляет из персистентного списка элемент, последним возвращенный next или previous.
+         */
+        @Override
+        public void remove() {
+            checkLastSlot();
+            checkCurrent();
+            ListLeaf<E> leaf = getLeaf(this.head, this.lastSlot);
+            this.prevSlot = leaf.getPrev(this.lastSlot & mask);
+            this.nextSlot = leaf.getNext(this.lastSlot & mask);
+            this.position = this.lastPosition;
+            HeadList<E> newHead = delete(this.head, this.lastPosition, this.lastSlot);
+            boolean moved = newHead.getWidth() != this.head.getWidth();
+            update(newHead);
+            if (moved) {
+                // Уплотнение или очистка переложили элементы в другие ячейки
+                seek();
+            }
+        }
+
+        /**
+         * Заменяет элемент, последним возвращенный next или previous.
+         * Элемент остается последним возвращенным, поэтому за заменой могут следовать set и remove.
+         * @param value новый элемент
+         */
+        @Override
+        public void set(E value) {
+            checkLastSlot();
+            checkCurrent();
+            setParent(value);
+            HeadList<E> newHead = new HeadList<>(bitsPerNode);
+            newHead.clone(this.head);
+            copyPath(newHead, this.lastSlot).set(this.lastSlot & mask, value);
+            newVersion(newHead);
+            this.head = newHead;
+        }
+
+        /**
+         * Вставляет элемент перед элементом, возвращаемым следующим вызовом next.
+         * @param value добавляемый элемент
+         */
+        @Override
+        public void add(E value) {
+            checkCurrent();
+            checkIfFull(this.head, 1);
+            setParent(value);
+            HeadList<E> newHead = insert(this.head, this.position, this.prevSlot, this.nextSlot, value);
+            if (this.nextSlot != ListLeaf.NONE) {
+                this.prevSlot = getLeaf(newHead, this.nextSlot).getPrev(this.nextSlot & mask);
+            } else {
+                this.prevSlot = newHead.getLast();
+            }
+            this.position++;
+            update(newHead);
+        }
+
+        private void update(HeadList<E> newHead) {
+            newVersion(newHead);
+            this.head = newHead;
+            this.lastSlot = ListLeaf.NONE;
+        }
+
+        private void seek() {
+            this.nextSlot = hasNext() ? getWidthIndex(this.head, this.position) : ListLeaf.NONE;
+            this.prevSlot = hasPrevious() ? getWidthIndex(this.head, this.position - 1) : ListLeaf.NONE;
+        }
+
+        private void checkCurrent() {
+            if (getHead() != this.head) {
+                throw new ConcurrentModificationException("Версия курсора не является текущей версией персистентного списка");
+            }
+        }
+
+        private void checkLastSlot() {
+            if (this.lastSlot == ListLeaf.NONE) {
+                throw new IllegalStateException("Курсор не указывает на элемент персистентного списка");
+            }
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Сплитератор по диапазону позиций одной версии персистентного списка.
+     */
+    private class ChainSpliterator implements Spliterator<E> {
+
+        /* Обходимая версия персистентного списка */
+        private final HeadList<E> head;
+        /* Индекс следующего элемента в двоичном дереве */
+        private int next;
+        /* Позиция следующего элемента в списке */
+        private int position;
+        /* Позиция, следующая за позицией последнего обходимого элемента */
+        private final int fence;
+        /* Элементы текущего листа */
+        private ListLeaf<E> leaf;
+        /* Индекс первого элемента текущего листа в двоичном дереве */
+        private int leafBase;
+
+        private ChainSpliterator(HeadList<E> head) {
+            this(head, head.getFirst(), 0, head.getSize());
+        }
+
+        private ChainSpliterator(HeadList<E> head, int next, int position, int fence) {
+            this.head = head;
+            this.next = next;
+            this.position = position;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (this.position >= this.fence) {
+                return false;
+            }
+            action.accept(advance());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            while (this.position < this.fence) {
+                action.accept(advance());
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int middle = this.position + (this.fence - this.position) / 2;
+            if (middle == this.position) {
+                return null;
+            }
+            Spliterator<E> prefix = new ChainSpliterator(this.head, this.next, this.position, middle);
+            this.position = middle;
+            this.next = getWidthIndex(this.head, middle);
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.fence - this.position;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE;
+        }
+
+        private E advance() {
+            int index = this.next;
+            int base = index & ~mask;
+            if ((this.leaf == null) || (base != this.leafBase)) {
+                this.leaf = getLeaf(this.head, index);
+                this.leafBase = base;
+            }
+            this.next = this.leaf.getNext(index & mask);
+            this.position++;
+            return this.leaf.getValue(index & mask);
+        }
+    }
+}
@@ -3,106 +3,91 @@ package pds;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 
+import pds.SubClasses.PHashMapClasses.CollisionNode;
+import pds.SubClasses.PHashMapClasses.HeadMap;
 import pds.SubClasses.PHashMapClasses.MapNode;
+import pds.SubClasses.PHashMapClasses.TrieNode;
 import pds.SubClasses.UndoRedoClasses.UndoRedoDataStructure;
 import pds.SubClasses.UndoRedoClasses.UndoRedoStack;
 
 /**
  * Персистентный ассоциативный массив на основе хэш-таблицы.
+ * Каждая ячейка хэш-таблицы хранит префиксное дерево по битам хэша (hash array mapped trie):
+ * нода дерева хранит только занятые позиции, отмеченные в битовой маске, а пары с совпадающими хэшами
+ * хранятся в ноде коллизий. Изменение копирует хэш-таблицу и путь от ячейки до изменяемой пары
+ * "ключ-значение", остальные ноды разделяются версиями.
+ * Хэш-таблица удваивается, когда число пар превышает ее размер, умноженный на коэффициент заполнения,
+ * пока не достигнет размера, после которого рост обеспечивают префиксные деревья ячеек.
  * @param <K> тип ключей ассоциативного массива
  * @param <V> тип значений ассоциативного массива
  */
 @SuppressWarnings("unchecked")
 public class PHashMap<K, V> extends UndoRedoDataStructure {
 
-    /* Размер хэш-таблицы */
-    private int width;
-    /* Массив, используемый для реализации хэш-таблицы */
-    private Object[] hashTable; 
+    /* Число бит хэша на каждую ноду префиксного дерева */
+    private static final int BITS = 5;
+    /* Маска для выбора позиции в ноде префиксного дерева */
+    private static final int MASK = (1 << BITS) - 1;
+    /* Коэффициент заполнения, при превышении которого хэш-таблица расширяется */
+    private static final double LOAD_FACTOR = 0.75;
+    /* Размер хэш-таблицы, до которого она расширяется автоматически */
+    private static final int MAX_WIDTH = 64;
+
+    /* Стратегия хэширования и сравнения ключей */
+    private final Hasher<K> hasher;
 
     /**
      * Конструктор класса.
-     * @param width размер хэш-таблицы
+     * @param width начальный размер хэш-таблицы, округляется вверх до степени двойки
+     * @param hasher стратегия хэширования и сравнения ключей
      */
-    public PHashMap(int width) {
+    public PHashMap(int width, Hasher<K> hasher) {
         super();
-        this.width = width;
-        this.hashTable = new Object[width];
-        for (int i = 0; i < width; i++) {
-            this.hashTable[i] = new PDoublyLinkedList<MapNode<K, V>>();
-        }
-        this.versions = new UndoRedoStack<>();
+        this.hasher = hasher;
+        int tableBits = Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(width, 1) - 1);
+        this.versions = new UndoRedoStack<>(new HeadMap(1 << tableBits));
         this.changes = new UndoRedoStack<>();
     }
 
     /**
-     * Конструктор класса со значением хэш-таблицы по умолчанию (width = 32).
+     * Конструктор класса, использующий методы hashCode и equals ключей.
+     * @param width начальный размер хэш-таблицы, округляется вверх до степени двойки
      */
-    public PHashMap() {
-        this(64);
+    public PHashMap(int width) {
+        this(width, Hasher.standard());
     }
 
     /**
-     * Конструктор класса.
-     * @param other объект класса PHashTable
+     * Конструктор класса с начальным размером хэш-таблицы по умолчанию (width = 8).
+     * Размер хэш-таблицы растет так же, как в {@link #PHashMap()}.
+     * @param hasher стратегия хэширования и сравнения ключей
      */
-    public PHashMap(PHashMap<K, V> other) {
-        this(other.width);
-        for (int i = 0; i < width; i++) {
-            this.hashTable[i] = new PDoublyLinkedList<MapNode<K, V>>((PDoublyLinkedList<MapNode<K, V>>) other.hashTable[i]);
-        }
-        this.versions.clone(other.versions);
-        this.changes.clone(other.changes);
+    public PHashMap(Hasher<K> hasher) {
+        this(8, hasher);
     }
 
     /**
-     * Возвращает к предыдущей версии структуры данных.
+     * Конструктор класса с начальным размером хэш-таблицы по умолчанию (width = 8).
+     * Ранее размер по умолчанию был равен 64; теперь хэш-таблица удваивается при заполнении
+     * более чем на 0.75 и достигает 64 ячеек, поэтому {@code getWidth()}
+     * новой пустой таблицы возвращает 8.
      */
-    @Override
-    public void undo() {
-        if (!this.changes.getUndo().isEmpty()) {
-            Object peek = this.changes.getUndo().peek();
-            if (peek == null) {
-                Object insts = this.versions.getUndo().peek();
-                if (insts instanceof List) {
-                    for (PDoublyLinkedList<?> inst: (List<PDoublyLinkedList<?>>) insts) {
-                        inst.undo();
-                    }
-                } else {
-                    ((PDoublyLinkedList<?>) insts).undo();
-                }
-                this.versions.undo();
-            } else {
-                ((UndoRedoDataStructure) peek).undo();
-            }
-            this.changes.getRedo().push(this.changes.getUndo().pop());
-        }
+    public PHashMap() {
+        this(8);
     }
 
     /**
-     * Возврат к версии структуры данных до выполнения {@link #undo() undo}.
+     * Конструктор класса.
+     * @param other объект класса PHashTable
      */
-    @Override
-    public void redo() {
-        if (!this.changes.getRedo().isEmpty()) {
-            Object peek = this.changes.getRedo().peek();
-            if (peek == null) {
-                Object insts = this.versions.getRedo().peek();
-                if (insts instanceof List) {
-                    for (PDoublyLinkedList<?> inst: (List<PDoublyLinkedList<?>>) insts) {
-                        inst.redo();
-                    }
-                } else {
-                    ((PDoublyLinkedList<?>) insts).redo();
-                }
-                this.versions.redo();
-            } else {
-                ((UndoRedoDataStructure) peek).redo();
-            }
-            this.changes.getUndo().push(this.changes.getRedo().pop());
-        }
+    public PHashMap(PHashMap<K, V> other) {
+        this(other.getWidth(), other.hasher);
+        this.versions.clone(other.versions);
+        this.changes.clone(other.changes);
     }
 
     /**
@@ -111,7 +96,7 @@ public class PHashMap<K, V> extends UndoRedoDataStructure {
      */
     public List<Object> toList() {
         List<Object> list = new ArrayList<>();
-        list.addAll(entrySet());
+        forEach(getHead(), list::add);
         return list;
     }
 
@@ -121,12 +106,7 @@ public class PHashMap<K, V> extends UndoRedoDataStructure {
      */
     public Set<MapNode<K, V>> entrySet() {
         Set<MapNode<K, V>> entries = new HashSet<>();
-        for (int index = 0; index < this.width; index++) {
-            PDoublyLinkedList<MapNode<K, V>> list = (PDoublyLinkedList<MapNode<K, V>>) hashTable[index];
-            for (int i = 0; i < list.size(); i++) {
-                entries.add(list.get(i));
-            }
-        }
+        forEach(getHead(), entries::add);
         return entries;
     }
 
@@ -136,12 +116,7 @@ public class PHashMap<K, V> extends UndoRedoDataStructure {
      */
     public Set<K> keySet() {
         Set<K> keys = new HashSet<>();
-        for (int index = 0; index < this.width; index++) {
-            PDoublyLinkedList<MapNode<K, V>> list = (PDoublyLinkedList<MapNode<K, V>>) hashTable[index];
-            for (int i = 0; i < list.size(); i++) {
-                keys.add(list.get(i).getKey());
-            }
-        }
+        forEach(getHead(), entry -> keys.add(entry.getKey()));
         return keys;
     }
 
@@ -151,12 +126,7 @@ public class PHashMap<K, V> extends UndoRedoDataStructure {
      */
     public List<V> values() {
         ArrayList<V> values = new ArrayList<>();
-        for (int index = 0; index < this.width; index++) {
-            PDoublyLinkedList<MapNode<K, V>> list = (PDoublyLinkedList<MapNode<K, V>>) hashTable[index];
-            for (int i = 0; i < list.size(); i++) {
-                values.add(list.get(i).getValue());
-            }
-        }
+        forEach(getHead(), entry -> values.add(entry.getValue()));
         return values;
     }
 
@@ -166,16 +136,23 @@ public class PHashMap<K, V> extends UndoRedoDataStructure {
      * @return true, если ассоциативный массив содержит ключ; false, иначе
      */
     public boolean containsKey(K key) {
-        return keySet().contains(key);
+        return find(getHead(), key, getHash(key)) != null;
     }
 
     /**
      * Возвращает true если ассоциативный массив содержит значение.
+     * Значения просматриваются непосредственно в нодах до первого совпадения.
      * @param value значение
      * @return true, если ассоциативный массив содержит значение; false, иначе
      */
     public boolean containsValue(V value) {
-        return values().contains(value);
+        HeadMap head = getHead();
+        for (int i = 0; i < head.getWidth(); i++) {
+            if (containsValue(head.get(i), value)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -183,7 +160,7 @@ public class PHashMap<K, V> extends UndoRedoDataStructure {
      * @return число пар "ключ-значение" в ассоциативном массиве
      */
     public int size() {
-        return keySet().size();
+        return getHead().getSize();
     }
 
     /**
@@ -200,15 +177,41 @@ public class PHashMap<K, V> extends UndoRedoDataStructure {
      * @return значение, если содержится; null иначе
      */
     public V get(K key) {
-        int index = getHash(key);
-        PDoublyLinkedList<MapNode<K, V>> list = (PDoublyLinkedList<MapNode<K, V>>) hashTable[index];
-        for (int i = 0; i < list.size(); i++) {
-            MapNode<K, V> listElement = list.get(i);
-            if (listElement.getKey().equals(key)) {
-                return listElement.getValue();
-            }
-        }
-        return null;
+        MapNode<K, V> entry = find(getHead(), key, getHash(key));
+        return (entry == null) ? null : entry.getValue();
+    }
+
+    /**
+     * Возвращает значение по ключу из указанной версии ассоциативного массива без выполнения undo-redo.
+     * @param version номер версии ассоциативного массива
+     * @param key ключ
+     * @return значение, если содержится в указанной версии; null иначе
+     */
+    public V get(int version, K key) {
+        MapNode<K, V> entry = find(getHead(version), key, getHash(key));
+        return (entry == null) ? null : entry.getValue();
+    }
+
+    /**
+     * Возвращает число пар "ключ-значение" в указанной версии ассоциативного массива.
+     * @param version номер версии ассоциативного массива
+     * @return число пар "ключ-значение" в указанной версии
+     */
+    public int size(int version) {
+        return getHead(version).getSize();
+    }
+
+    /**
+     * Возвращает новый ассоциативный массив, единственная версия которого совпадает с указанной версией данного массива.
+     * Ноды указанной версии используются повторно без копирования.
+     * @param version номер версии ассоциативного массива
+     * @return ассоциативный массив, содержащий указанную версию
+     */
+    public PHashMap<K, V> snapshot(int version) {
+        HeadMap head = getHead(version);
+        PHashMap<K, V> map = new PHashMap<>(head.getWidth(), this.hasher);
+        map.versions = new UndoRedoStack<>(head);
+        return map;
     }
 
     /**
@@ -218,20 +221,19 @@ public class PHashMap<K, V> extends UndoRedoDataStructure {
      */
     public void put(K key, V value) {
         setParent(value);
-        int index = getHash(key);
-        PDoublyLinkedList<MapNode<K, V>> list = (PDoublyLinkedList<MapNode<K, V>>) hashTable[index];
-        boolean exists = false;
-        for (int i = 0; i < list.size(); i++) {
-            MapNode<K, V> listElement = list.get(i);
-            if (listElement.getKey().equals(key)) {
-                list.set(i, new MapNode<>(key, value));
-                exists = true;
-            }
+        HeadMap oldHead = getHead();
+        HeadMap head = new HeadMap(oldHead.getWidth());
+        head.clone(oldHead);
+        int hash = getHash(key);
+        if (find(oldHead, key, hash) == null) {
+            head.setSize(head.getSize() + 1);
         }
-        if (!exists) {
-            list.add(new MapNode<>(key, value));
+        int index = hash & (head.getWidth() - 1);
+        head.set(index, put(head.get(index), getTableBits(head), hash, new MapNode<>(key, value, hash)));
+        if ((head.getWidth() < MAX_WIDTH) && (head.getSize() > head.getWidth() * LOAD_FACTOR)) {
+            head = resize(head);
         }
-        newVersion(list);
+        newVersion(head);
     }
 
     /**
@@ -240,42 +242,257 @@ public class PHashMap<K, V> extends UndoRedoDataStructure {
      * @return удаленное значение, если удалено; null иначе
      */
     public V remove(K key) {
-        int index = getHash(key);
-        PDoublyLinkedList<MapNode<K, V>> list = (PDoublyLinkedList<MapNode<K, V>>) hashTable[index];
-        for (int i = 0; i < list.size(); i++) {
-            MapNode<K, V> listElement = list.get(i);
-            if (listElement.getKey().equals(key)) {
-                V value = listElement.getValue();
-                list.remove(i);
-                newVersion(list);
-                return value;
-            }
+        HeadMap oldHead = getHead();
+        int hash = getHash(key);
+        MapNode<K, V> entry = find(oldHead, key, hash);
+        if (entry == null) {
+            return null;
         }
-        return null;
+        HeadMap head = new HeadMap(oldHead.getWidth());
+        head.clone(oldHead);
+        int index = hash & (head.getWidth() - 1);
+        head.set(index, remove(head.get(index), getTableBits(head), hash, key));
+        head.setSize(head.getSize() - 1);
+        newVersion(head);
+        return entry.getValue();
     }
 
     /**
      * Удаляет все элементы из персистентного ассоциативного массива.
      */
     public void clear() {
-        ArrayList<PDoublyLinkedList<MapNode<K, V>>> changed = new ArrayList<>(this.width);
-        for (int i = 0; i < this.width; i++) {
-            PDoublyLinkedList<MapNode<K, V>> list = (PDoublyLinkedList<MapNode<K, V>>) this.hashTable[i];
-            list.clear();
-            changed.add(list);
-        }
-        newVersion(changed);
+        newVersion(new HeadMap(getWidth()));
     }
 
     /**
-     * Возвращает размер хэш-таблицы.
+     * Возвращает размер хэш-таблицы текущей версии.
      * @return размер хэш-таблицы
      */
     public int getWidth() {
-        return this.width;
+        return getHead().getWidth();
+    }
+
+    private HeadMap resize(HeadMap head) {
+        HeadMap newHead = new HeadMap(head.getWidth() * 2);
+        newHead.setSize(head.getSize());
+        int tableBits = getTableBits(newHead);
+        forEach(head, entry -> {
+            int index = entry.getHash() & (newHead.getWidth() - 1);
+            newHead.set(index, put(newHead.get(index), tableBits, entry.getHash(), entry));
+        });
+        return newHead;
+    }
+
+    private MapNode<K, V> find(HeadMap head, K key, int hash) {
+        Object node = head.get(hash & (head.getWidth() - 1));
+        int shift = getTableBits(head);
+        while (node instanceof TrieNode) {
+            TrieNode trie = (TrieNode) node;
+            int bit = getBit(hash, shift);
+            if ((trie.getBitmap() & bit) == 0) {
+                return null;
+            }
+            node = trie.get(getIndex(trie, bit));
+            shift += BITS;
+        }
+        if (node instanceof CollisionNode) {
+            CollisionNode collision = (CollisionNode) node;
+            if (collision.getHash() != hash) {
+                return null;
+            }
+            for (int i = 0; i < collision.getCount(); i++) {
+                MapNode<K, V> entry = (MapNode<K, V>) collision.get(i);
+                if (this.hasher.equals(entry.getKey(), key)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+        MapNode<K, V> entry = (MapNode<K, V>) node;
+        return ((entry != null) && matches(entry, hash, key)) ? entry : null;
+    }
+
+    private Object put(Object node, int shift, int hash, MapNode<K, V> entry) {
+        if (node == null) {
+            return entry;
+        }
+        if (node instanceof TrieNode) {
+            TrieNode trie = (TrieNode) node;
+            int bit = getBit(hash, shift);
+            int index = getIndex(trie, bit);
+            if ((trie.getBitmap() & bit) == 0) {
+                return new TrieNode(trie.getBitmap() | bit, insert(trie.get(), index, entry));
+            }
+            Object child = put(trie.get(index), shift + BITS, hash, entry);
+            return new TrieNode(trie.getBitmap(), replace(trie.get(), index, child));
+        }
+        if (node instanceof CollisionNode) {
+            CollisionNode collision = (CollisionNode) node;
+            if (collision.getHash() != hash) {
+                return merge(collision, collision.getHash(), entry, hash, shift);
+            }
+            for (int i = 0; i < collision.getCount(); i++) {
+                if (this.hasher.equals(((MapNode<K, V>) collision.get(i)).getKey(), entry.getKey())) {
+                    return new CollisionNode(hash, replace(collision.get(), i, entry));
+                }
+            }
+            return new CollisionNode(hash, insert(collision.get(), collision.getCount(), entry));
+        }
+        MapNode<K, V> old = (MapNode<K, V>) node;
+        if (matches(old, hash, entry.getKey())) {
+            return entry;
+        }
+        if (old.getHash() == hash) {
+            return new CollisionNode(hash, new Object[] {old, entry});
+        }
+        return merge(old, old.getHash(), entry, hash, shift);
+    }
+
+    private TrieNode merge(Object left, int leftHash, Object right, int rightHash, int shift) {
+        int leftPosition = (leftHash >>> shift) & MASK;
+        int rightPosition = (rightHash >>> shift) & MASK;
+        if (leftPosition == rightPosition) {
+            return new TrieNode(1 << leftPosition, new Object[] {merge(left, leftHash, right, rightHash, shift + BITS)});
+        }
+        int bitmap = (1 << leftPosition) | (1 << rightPosition);
+        if (leftPosition < rightPosition) {
+            return new TrieNode(bitmap, new Object[] {left, right});
+        }
+        return new TrieNode(bitmap, new Object[] {right, left});
+    }
+
+    private Object remove(Object node, int shift, int hash, K key) {
+        if (node instanceof TrieNode) {
+            TrieNode trie = (TrieNode) node;
+            int bit = getBit(hash, shift);
+            if ((trie.getBitmap() & bit) == 0) {
+                return node;
+            }
+            int index = getIndex(trie, bit);
+            Object child = trie.get(index);
+            Object newChild = remove(child, shift + BITS, hash, key);
+            if (newChild == child) {
+                return node;
+            }
+            if (newChild == null) {
+                if (trie.getCount() == 1) {
+                    return null;
+                }
+                if ((trie.getCount() == 2) && !(trie.get(1 - index) instanceof TrieNode)) {
+                    return trie.get(1 - index);
+                }
+                return new TrieNode(trie.getBitmap() & ~bit, delete(trie.get(), index));
+            }
+            if ((trie.getCount() == 1) && !(newChild instanceof TrieNode)) {
+                return newChild;
+            }
+            return new TrieNode(trie.getBitmap(), replace(trie.get(), index, newChild));
+        }
+        if (node instanceof CollisionNode) {
+            CollisionNode collision = (CollisionNode) node;
+            for (int i = 0; i < collision.getCount(); i++) {
+                if (this.hasher.equals(((MapNode<K, V>) collision.get(i)).getKey(), key)) {
+                    if (collision.getCount() == 2) {
+                        return collision.get(1 - i);
+                    }
+                    return new CollisionNode(collision.getHash(), delete(collision.get(), i));
+                }
+            }
+            return node;
+        }
+        if ((node != null) && matches((MapNode<K, V>) node, hash, key)) {
+            return null;
+        }
+        return node;
+    }
+
+    private boolean matches(MapNode<K, V> entry, int hash, K key) {
+        return (entry.getHash() == hash) && this.hasher.equals(entry.getKey(), key);
+    }
+
+    private boolean containsValue(Object node, V value) {
+        if (node instanceof TrieNode) {
+            for (Object child : ((TrieNode) node).get()) {
+                if (containsValue(child, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (node instanceof CollisionNode) {
+            for (Object entry : ((CollisionNode) node).get()) {
+                if (Objects.equals(value, ((MapNode<K, V>) entry).getValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return (node != null) && Objects.equals(value, ((MapNode<K, V>) node).getValue());
+    }
+
+    private void forEach(HeadMap head, Consumer<MapNode<K, V>> action) {
+        for (int i = 0; i < head.getWidth(); i++) {
+            forEach(head.get(i), action);
+        }
+    }
+
+    private void forEach(Object node, Consumer<MapNode<K, V>> action) {
+        if (node instanceof TrieNode) {
+            for (Object child : ((TrieNode) node).get()) {
+                forEach(child, action);
+            }
+        } else if (node instanceof CollisionNode) {
+            for (Object entry : ((CollisionNode) node).get()) {
+                action.accept((MapNode<K, V>) entry);
+            }
+        } else if (node != null) {
+            action.accept((MapNode<K, V>) node);
+        }
+    }
+
+    private static Object[] insert(Object[] content, int index, Object element) {
+        Object[] newContent = new Object[content.length + 1];
+        System.arraycopy(content, 0, newContent, 0, index);
+        newContent[index] = element;
+        System.arraycopy(content, index, newContent, index + 1, content.length - index);
+        return newContent;
+    }
+
+    private static Object[] replace(Object[] content, int index, Object element) {
+        Object[] newContent = content.clone();
+        newContent[index] = element;
+        return newContent;
+    }
+
+    private static Object[] delete(Object[] content, int index) {
+        Object[] newContent = new Object[content.length - 1];
+        System.arraycopy(content, 0, newContent, 0, index);
+        System.arraycopy(content, index + 1, newContent, index, content.length - index - 1);
+        return newContent;
+    }
+
+    private static int getBit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int getIndex(TrieNode trie, int bit) {
+        return Integer.bitCount(trie.getBitmap() & (bit - 1));
+    }
+
+    private static int getTableBits(HeadMap head) {
+        return Integer.numberOfTrailingZeros(head.getWidth());
+    }
+
+    private HeadMap getHead() {
+        return (HeadMap) this.versions.getCurrent();
+    }
+
+    private HeadMap getHead(int version) {
+        return (HeadMap) getVersion(version);
     }
 
     private int getHash(K key) {
-        return Math.abs(key.toString().hashCode()) % this.width;
+        int hash = this.hasher.hash(key);
+        return hash ^ (hash >>> 16);
     }
 }
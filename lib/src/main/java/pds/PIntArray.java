@@ -0,0 +1,83 @@
+package pds;
+
+import pds.SubClasses.CopyPathClasses.IntNode;
+import pds.SubClasses.CopyPathClasses.Node;
+
+/**
+ * Персистентный массив целых чисел.
+ * Листья двоичного дерева хранят элементы в массивах int[] без упаковки,
+ * внутренние ноды и механизм undo-redo общие с {@link PArray}.
+ */
+public class PIntArray extends PArray<Integer> {
+
+    /**
+     * Конструктор класса с ограниченным размером массива.
+     * @param height высота (глубина) двоичного дерева, определяющая максимальный размер массива
+     * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного массива
+     */
+    public PIntArray(int height, int bitsPerNode) {
+        super(height, bitsPerNode);
+    }
+
+    /**
+     * Конструктор класса без ограничения размера массива.
+     * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного массива
+     */
+    public PIntArray(int bitsPerNode) {
+        super(bitsPerNode);
+    }
+
+    /**
+     * Конструктор класса со значениями по умолчанию (bitsPerNode = 2, без ограничения размера).
+     */
+    public PIntArray() {
+        this(2);
+    }
+
+    /**
+     * Конструктор класса.
+     * @param other объект класса PIntArray
+     */
+    public PIntArray(PIntArray other) {
+        super(other);
+    }
+
+    /**
+     * Возвращает из персистентного массива элемент по индексу без упаковки.
+     * @param index индекс элемента в персистентном массиве
+     * @return элемент из персистентного массива
+     */
+    public int getInt(int index) {
+        return (int) getBits(index);
+    }
+
+    /**
+     * Возвращает элемент по индексу из указанной версии персистентного массива без упаковки и без выполнения undo-redo.
+     * @param version номер версии персистентного массива
+     * @param index индекс элемента в указанной версии
+     * @return элемент из указанной версии персистентного массива
+     */
+    public int getInt(int version, int index) {
+        return (int) getBits(version, index);
+    }
+
+    @Override
+    public PIntArray snapshot(int version) {
+        return (PIntArray) super.snapshot(version);
+    }
+
+    @Override
+    public PIntArray slice(int from, int to) {
+        return (PIntArray) super.slice(from, to);
+    }
+
+    @Override
+    protected Node<Integer> newLeaf() {
+        return new IntNode(getBitsPerNode());
+    }
+
+    @Override
+    protected PArray<Integer> newArray() {
+        return new PIntArray(getBitsPerNode());
+    }
+}
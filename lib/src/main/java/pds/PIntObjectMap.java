@@ -0,0 +1,92 @@
+package pds;
+
+/**
+ * Персистентный ассоциативный массив с ключами типа int.
+ * Ключ расширяется до long и хранится в тех же нодах, что и у {@link PLongObjectMap}.
+ * @param <V> тип значений ассоциативного массива
+ */
+public class PIntObjectMap<V> extends PPrimitiveObjectMap<V> {
+
+    /**
+     * Конструктор класса.
+     */
+    public PIntObjectMap() {
+        super();
+    }
+
+    /**
+     * Конструктор класса.
+     * @param other объект класса PIntObjectMap
+     */
+    public PIntObjectMap(PIntObjectMap<V> other) {
+        super(other);
+    }
+
+    /**
+     * Возвращает массив всех ключей ассоциативного массива.
+     * @return массив всех ключей ассоциативного массива
+     */
+    public int[] keys() {
+        long[] keys = keys(getHead());
+        int[] result = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            result[i] = (int) keys[i];
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает true если ассоциативный массив содержит ключ.
+     * @param key ключ
+     * @return true, если ассоциативный массив содержит ключ; false, иначе
+     */
+    public boolean containsKey(int key) {
+        return find(getHead(), key) != null;
+    }
+
+    /**
+     * Возвращает из ассоциативного массива значение по ключу.
+     * @param key ключ
+     * @return значение, если содержится; null иначе
+     */
+    public V get(int key) {
+        return getValue(key);
+    }
+
+    /**
+     * Возвращает значение по ключу из указанной версии ассоциативного массива без выполнения undo-redo.
+     * @param version номер версии ассоциативного массива
+     * @param key ключ
+     * @return значение, если содержится в указанной версии; null иначе
+     */
+    public V get(int version, int key) {
+        return getValue(version, key);
+    }
+
+    /**
+     * Возвращает новый ассоциативный массив, единственная версия которого совпадает с указанной версией данного массива.
+     * @param version номер версии ассоциативного массива
+     * @return ассоциативный массив, содержащий указанную версию
+     */
+    public PIntObjectMap<V> snapshot(int version) {
+        return snapshot(new PIntObjectMap<>(), version);
+    }
+
+    /**
+     * Добавляет пару "ключ-значение" в асссоциативный массив.
+     * @param key ключ
+     * @param value значение
+     */
+    public void put(int key, V value) {
+        putValue(key, value);
+    }
+
+    /**
+     * Удаляет пару "ключ-значение" в асссоциативном массиве по ключу.
+     * @param key ключ
+     * @return удаленное значение, если удалено; null иначе
+     */
+    public V remove(int key) {
+        return removeValue(key);
+    }
+}
@@ -0,0 +1,83 @@
+package pds;
+
+import pds.SubClasses.CopyPathClasses.LongNode;
+import pds.SubClasses.CopyPathClasses.Node;
+
+/**
+ * Персистентный массив длинных целых чисел.
+ * Листья двоичного дерева хранят элементы в массивах long[] без упаковки,
+ * внутренние ноды и механизм undo-redo общие с {@link PArray}.
+ */
+public class PLongArray extends PArray<Long> {
+
+    /**
+     * Конструктор класса с ограниченным размером массива.
+     * @param height высота (глубина) двоичного дерева, определяющая максимальный размер массива
+     * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного массива
+     */
+    public PLongArray(int height, int bitsPerNode) {
+        super(height, bitsPerNode);
+    }
+
+    /**
+     * Конструктор класса без ограничения размера массива.
+     * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного массива
+     */
+    public PLongArray(int bitsPerNode) {
+        super(bitsPerNode);
+    }
+
+    /**
+     * Конструктор класса со значениями по умолчанию (bitsPerNode = 2, без ограничения размера).
+     */
+    public PLongArray() {
+        this(2);
+    }
+
+    /**
+     * Конструктор класса.
+     * @param other объект класса PLongArray
+     */
+    public PLongArray(PLongArray other) {
+        super(other);
+    }
+
+    /**
+     * Возвращает из персистентного массива элемент по индексу без упаковки.
+     * @param index индекс элемента в персистентном массиве
+     * @return элемент из персистентного массива
+     */
+    public long getLong(int index) {
+        return getBits(index);
+    }
+
+    /**
+     * Возвращает элемент по индексу из указанной версии персистентного массива без упаковки и без выполнения undo-redo.
+     * @param version номер версии персистентного массива
+     * @param index индекс элемента в указанной версии
+     * @return элемент из указанной версии персистентного массива
+     */
+    public long getLong(int version, int index) {
+        return getBits(version, index);
+    }
+
+    @Override
+    public PLongArray snapshot(int version) {
+        return (PLongArray) super.snapshot(version);
+    }
+
+    @Override
+    public PLongArray slice(int from, int to) {
+        return (PLongArray) super.slice(from, to);
+    }
+
+    @Override
+    protected Node<Long> newLeaf() {
+        return new LongNode(getBitsPerNode());
+    }
+
+    @Override
+    protected PArray<Long> newArray() {
+        return new PLongArray(getBitsPerNode());
+    }
+}
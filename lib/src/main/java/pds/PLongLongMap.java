@@ -0,0 +1,113 @@
+package pds;
+
+import pds.SubClasses.PHashMapClasses.LongTrieNode;
+
+/**
+ * Персистентный ассоциативный массив с ключами и значениями типа long.
+ * Ключи и значения хранятся в массивах long[] нод префиксного дерева, поэтому ни поиск, ни изменение
+ * не выполняют упаковку; механизм undo-redo общий с {@link PHashMap}.
+ */
+public class PLongLongMap extends PPrimitiveMap {
+
+    /**
+     * Конструктор класса.
+     */
+    public PLongLongMap() {
+        super(true);
+    }
+
+    /**
+     * Конструктор класса.
+     * @param other объект класса PLongLongMap
+     */
+    public PLongLongMap(PLongLongMap other) {
+        super(other);
+    }
+
+    /**
+     * Возвращает массив всех ключей ассоциативного массива.
+     * @return массив всех ключей ассоциативного массива
+     */
+    public long[] keys() {
+        return keys(getHead());
+    }
+
+    /**
+     * Возвращает массив всех значений ассоциативного массива в порядке {@link #keys() keys}.
+     * @return массив всех значений ассоциативного массива
+     */
+    public long[] values() {
+        long[] values = new long[size()];
+        int[] count = new int[1];
+        forEach(getHead().getRoot(), (node, index) -> values[count[0]++] = node.getLongValue(index));
+        return values;
+    }
+
+    /**
+     * Возвращает true если ассоциативный массив содержит ключ.
+     * @param key ключ
+     * @return true, если ассоциативный массив содержит ключ; false, иначе
+     */
+    public boolean containsKey(long key) {
+        return find(getHead(), key) != null;
+    }
+
+    /**
+     * Возвращает true если ассоциативный массив содержит значение.
+     * @param value значение
+     * @return true, если ассоциативный массив содержит значение; false, иначе
+     */
+    public boolean containsValue(long value) {
+        return containsLongValue(getHead().getRoot(), value);
+    }
+
+    /**
+     * Возвращает из ассоциативного массива значение по ключу.
+     * @param key ключ
+     * @param defaultValue значение, возвращаемое при отсутствии ключа
+     * @return значение, если содержится; defaultValue иначе
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        LongTrieNode node = find(getHead(), key);
+        return (node == null) ? defaultValue : node.getLongValue(indexOf(node, key));
+    }
+
+    /**
+     * Возвращает значение по ключу из указанной версии ассоциативного массива без выполнения undo-redo.
+     * @param version номер версии ассоциативного массива
+     * @param key ключ
+     * @param defaultValue значение, возвращаемое при отсутствии ключа
+     * @return значение, если содержится в указанной версии; defaultValue иначе
+     */
+    public long getOrDefault(int version, long key, long defaultValue) {
+        LongTrieNode node = find(getHead(version), key);
+        return (node == null) ? defaultValue : node.getLongValue(indexOf(node, key));
+    }
+
+    /**
+     * Возвращает новый ассоциативный массив, единственная версия которого совпадает с указанной версией данного массива.
+     * @param version номер версии ассоциативного массива
+     * @return ассоциативный массив, содержащий указанную версию
+     */
+    public PLongLongMap snapshot(int version) {
+        return snapshot(new PLongLongMap(), version);
+    }
+
+    /**
+     * Добавляет пару "ключ-значение" в асссоциативный массив.
+     * @param key ключ
+     * @param value значение
+     */
+    public void put(long key, long value) {
+        put(key, null, value);
+    }
+
+    /**
+     * Удаляет пару "ключ-значение" в асссоциативном массиве по ключу.
+     * @param key ключ
+     * @return true, если пара удалена; false, если ключ не содержался
+     */
+    public boolean remove(long key) {
+        return delete(key);
+    }
+}
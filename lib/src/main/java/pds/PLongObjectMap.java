@@ -0,0 +1,88 @@
+package pds;
+
+/**
+ * Персистентный ассоциативный массив с ключами типа long.
+ * Поиск и изменение не упаковывают ключ, а пара "ключ-значение" не требует отдельного объекта:
+ * ключи хранятся в массивах long[] нод префиксного дерева.
+ * @param <V> тип значений ассоциативного массива
+ */
+public class PLongObjectMap<V> extends PPrimitiveObjectMap<V> {
+
+    /**
+     * Конструктор класса.
+     */
+    public PLongObjectMap() {
+        super();
+    }
+
+    /**
+     * Конструктор класса.
+     * @param other объект класса PLongObjectMap
+     */
+    public PLongObjectMap(PLongObjectMap<V> other) {
+        super(other);
+    }
+
+    /**
+     * Возвращает массив всех ключей ассоциативного массива.
+     * @return массив всех ключей ассоциативного массива
+     */
+    public long[] keys() {
+        return keys(getHead());
+    }
+
+    /**
+     * Возвращает true если ассоциативный массив содержит ключ.
+     * @param key ключ
+     * @return true, если ассоциативный массив содержит ключ; false, иначе
+     */
+    public boolean containsKey(long key) {
+        return find(getHead(), key) != null;
+    }
+
+    /**
+     * Возвращает из ассоциативного массива значение по ключу.
+     * @param key ключ
+     * @return значение, если содержится; null иначе
+     */
+    public V get(long key) {
+        return getValue(key);
+    }
+
+    /**
+     * Возвращает значение по ключу из указанной версии ассоциативного массива без выполнения undo-redo.
+     * @param version номер версии ассоциативного массива
+     * @param key ключ
+     * @return значение, если содержится в указанной версии; null иначе
+     */
+    public V get(int version, long key) {
+        return getValue(version, key);
+    }
+
+    /**
+     * Возвращает новый ассоциативный массив, единственная версия которого совпадает с указанной версией данного массива.
+     * @param version номер версии ассоциативного массива
+     * @return ассоциативный массив, содержащий указанную версию
+     */
+    public PLongObjectMap<V> snapshot(int version) {
+        return snapshot(new PLongObjectMap<>(), version);
+    }
+
+    /**
+     * Добавляет пару "ключ-значение" в асссоциативный массив.
+     * @param key ключ
+     * @param value значение
+     */
+    public void put(long key, V value) {
+        putValue(key, value);
+    }
+
+    /**
+     * Удаляет пару "ключ-значение" в асссоциативном массиве по ключу.
+     * @param key ключ
+     * @return удаленное значение, если удалено; null иначе
+     */
+    public V remove(long key) {
+        return removeValue(key);
+    }
+}
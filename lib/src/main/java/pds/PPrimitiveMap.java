@@ -0,0 +1,279 @@
+package pds;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+
+import pds.SubClasses.PHashMapClasses.HeadPrimitiveMap;
+import pds.SubClasses.PHashMapClasses.LongTrieNode;
+import pds.SubClasses.PHashMapClasses.MapNode;
+import pds.SubClasses.UndoRedoClasses.UndoRedoDataStructure;
+import pds.SubClasses.UndoRedoClasses.UndoRedoStack;
+
+/**
+ * Основа персистентных ассоциативных массивов с ключами примитивных типов.
+ * Пары хранятся в префиксном дереве по битам перемешанного 64-битного ключа: нода отмечает в двух битовых масках
+ * позиции пар и позиции дочерних нод, а ключи и значения хранит в собственных массивах без упаковки
+ * и без отдельного объекта на каждую пару. Перемешивание ключа обратимо, поэтому разные ключи
+ * всегда расходятся в дереве и нод коллизий не требуется.
+ */
+abstract class PPrimitiveMap extends UndoRedoDataStructure {
+
+    /* Число бит ключа на каждую ноду префиксного дерева */
+    private static final int BITS = 5;
+    /* Маска для выбора позиции в ноде префиксного дерева */
+    private static final int MASK = (1 << BITS) - 1;
+
+    /* Пустая нода, определяющая способ хранения значений (Object[] или long[]) */
+    private final LongTrieNode empty;
+
+    /**
+     * Конструктор класса.
+     * @param longValues true, если значения хранятся в массивах long[]; false, если в массивах Object[]
+     */
+    protected PPrimitiveMap(boolean longValues) {
+        super();
+        this.empty = LongTrieNode.empty(longValues);
+        this.versions = new UndoRedoStack<>(new HeadPrimitiveMap(this.empty, 0));
+        this.changes = new UndoRedoStack<>();
+    }
+
+    /**
+     * Конструктор класса.
+     * @param other объект класса PPrimitiveMap
+     */
+    protected PPrimitiveMap(PPrimitiveMap other) {
+        this(other.empty.hasLongValues());
+        this.versions.clone(other.versions);
+        this.changes.clone(other.changes);
+    }
+
+    /**
+     * Преобразует персистентный ассоциатный массив в список.
+     * @return список, содержащий пары "ключ-значение" персистентного ассоциативного массива
+     */
+    public List<Object> toList() {
+        List<Object> list = new ArrayList<>();
+        forEach(getHead().getRoot(), (node, index) -> list.add(new MapNode<>(node.getKey(index),
+            node.hasLongValues() ? node.getLongValue(index) : node.getValue(index))));
+        return list;
+    }
+
+    /**
+     * Возвращает число пар "ключ-значение" в ассоциативном массиве.
+     * @return число пар "ключ-значение" в ассоциативном массиве
+     */
+    public int size() {
+        return getHead().getSize();
+    }
+
+    /**
+     * Возвращает число пар "ключ-значение" в указанной версии ассоциативного массива.
+     * @param version номер версии ассоциативного массива
+     * @return число пар "ключ-значение" в указанной версии
+     */
+    public int size(int version) {
+        return getHead(version).getSize();
+    }
+
+    /**
+     * Возвращает true, если ассоциативный массив пустой.
+     * @return true, если ассоциативный массив пустой; false, если иначе
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Удаляет все элементы из персистентного ассоциативного массива.
+     */
+    public void clear() {
+        newVersion(new HeadPrimitiveMap(this.empty, 0));
+    }
+
+    protected HeadPrimitiveMap getHead() {
+        return (HeadPrimitiveMap) this.versions.getCurrent();
+    }
+
+    protected HeadPrimitiveMap getHead(int version) {
+        return (HeadPrimitiveMap) getVersion(version);
+    }
+
+    protected <M extends PPrimitiveMap> M snapshot(M map, int version) {
+        map.versions = new UndoRedoStack<>(getHead(version));
+        return map;
+    }
+
+    protected long[] keys(HeadPrimitiveMap head) {
+        long[] keys = new long[head.getSize()];
+        int[] count = new int[1];
+        forEach(head.getRoot(), (node, index) -> keys[count[0]++] = node.getKey(index));
+        return keys;
+    }
+
+    protected List<Object> values(HeadPrimitiveMap head) {
+        List<Object> values = new ArrayList<>(head.getSize());
+        forEach(head.getRoot(), (node, index) -> values.add(node.getValue(index)));
+        return values;
+    }
+
+    /**
+     * Возвращает ноду, хранящую пару с указанным ключом.
+     * @param head версия ассоциативного массива
+     * @param key ключ
+     * @return нода, содержащая пару; null, если ключ не содержится
+     */
+    protected LongTrieNode find(HeadPrimitiveMap head, long key) {
+        LongTrieNode node = head.getRoot();
+        long hash = mix(key);
+        for (int shift = 0; ; shift += BITS) {
+            int bit = getBit(hash, shift);
+            if ((node.getDataMap() & bit) != 0) {
+                return (node.getKey(node.dataIndex(bit)) == key) ? node : null;
+            }
+            if ((node.getNodeMap() & bit) == 0) {
+                return null;
+            }
+            node = node.getNode(node.nodeIndex(bit));
+        }
+    }
+
+    /**
+     * Возвращает индекс пары с указанным ключом в ноде, найденной {@link #find(HeadPrimitiveMap, long) find}.
+     * @param node нода, содержащая пару
+     * @param key ключ
+     * @return индекс пары в ноде
+     */
+    protected static int indexOf(LongTrieNode node, long key) {
+        int index = 0;
+        while (node.getKey(index) != key) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Создает новую версию с добавленной парой "ключ-значение".
+     * @param key ключ
+     * @param value значение для массивов со значениями Object[]
+     * @param longValue значение для массивов со значениями long[]
+     */
+    protected void put(long key, Object value, long longValue) {
+        HeadPrimitiveMap head = getHead();
+        int size = (find(head, key) == null) ? head.getSize() + 1 : head.getSize();
+        newVersion(new HeadPrimitiveMap(put(head.getRoot(), 0, mix(key), key, value, longValue), size));
+    }
+
+    /**
+     * Создает новую версию без пары с указанным ключом, если ключ содержится.
+     * @param key ключ
+     * @return true, если пара удалена; false, иначе
+     */
+    protected boolean delete(long key) {
+        HeadPrimitiveMap head = getHead();
+        LongTrieNode root = remove(head.getRoot(), 0, mix(key), key);
+        if (root == head.getRoot()) {
+            return false;
+        }
+        newVersion(new HeadPrimitiveMap(root, head.getSize() - 1));
+        return true;
+    }
+
+    protected boolean containsValue(LongTrieNode node, Object value) {
+        for (int i = 0; i < node.getDataCount(); i++) {
+            if (Objects.equals(value, node.getValue(i))) {
+                return true;
+            }
+        }
+        for (int i = 0; i < node.getNodeCount(); i++) {
+            if (containsValue(node.getNode(i), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected boolean containsLongValue(LongTrieNode node, long value) {
+        for (int i = 0; i < node.getDataCount(); i++) {
+            if (node.getLongValue(i) == value) {
+                return true;
+            }
+        }
+        for (int i = 0; i < node.getNodeCount(); i++) {
+            if (containsLongValue(node.getNode(i), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void forEach(LongTrieNode node, ObjIntConsumer<LongTrieNode> action) {
+        for (int i = 0; i < node.getDataCount(); i++) {
+            action.accept(node, i);
+        }
+        for (int i = 0; i < node.getNodeCount(); i++) {
+            forEach(node.getNode(i), action);
+        }
+    }
+
+    private LongTrieNode put(LongTrieNode node, int shift, long hash, long key, Object value, long longValue) {
+        int bit = getBit(hash, shift);
+        if ((node.getDataMap() & bit) != 0) {
+            int index = node.dataIndex(bit);
+            long other = node.getKey(index);
+            if (other == key) {
+                return node.setValue(index, value, longValue);
+            }
+            LongTrieNode child = merge(other, mix(other), node.getValue(index), node.getLongValue(index),
+                key, hash, value, longValue, shift + BITS);
+            return node.entryToNode(bit, child);
+        }
+        if ((node.getNodeMap() & bit) != 0) {
+            LongTrieNode child = node.getNode(node.nodeIndex(bit));
+            return node.setNode(bit, put(child, shift + BITS, hash, key, value, longValue));
+        }
+        return node.insertEntry(bit, key, value, longValue);
+    }
+
+    private LongTrieNode merge(long leftKey, long leftHash, Object leftValue, long leftLongValue,
+                               long rightKey, long rightHash, Object rightValue, long rightLongValue, int shift) {
+        int leftBit = getBit(leftHash, shift);
+        int rightBit = getBit(rightHash, shift);
+        if (leftBit == rightBit) {
+            return this.empty.insertNode(leftBit, merge(leftKey, leftHash, leftValue, leftLongValue,
+                rightKey, rightHash, rightValue, rightLongValue, shift + BITS));
+        }
+        return this.empty.insertEntry(leftBit, leftKey, leftValue, leftLongValue)
+            .insertEntry(rightBit, rightKey, rightValue, rightLongValue);
+    }
+
+    private LongTrieNode remove(LongTrieNode node, int shift, long hash, long key) {
+        int bit = getBit(hash, shift);
+        if ((node.getDataMap() & bit) != 0) {
+            return (node.getKey(node.dataIndex(bit)) == key) ? node.removeEntry(bit) : node;
+        }
+        if ((node.getNodeMap() & bit) == 0) {
+            return node;
+        }
+        LongTrieNode child = node.getNode(node.nodeIndex(bit));
+        LongTrieNode newChild = remove(child, shift + BITS, hash, key);
+        if (newChild == child) {
+            return node;
+        }
+        if ((newChild.getNodeCount() == 0) && (newChild.getDataCount() == 1)) {
+            return node.nodeToEntry(bit, newChild);
+        }
+        return node.setNode(bit, newChild);
+    }
+
+    private static int getBit(long hash, int shift) {
+        return 1 << ((int) (hash >>> shift) & MASK);
+    }
+
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+}
@@ -0,0 +1,72 @@
+package pds;
+
+import java.util.List;
+
+import pds.SubClasses.PHashMapClasses.HeadPrimitiveMap;
+import pds.SubClasses.PHashMapClasses.LongTrieNode;
+
+/**
+ * Основа персистентных ассоциативных массивов с ключами примитивных типов и значениями-объектами.
+ * Значения хранятся в массивах Object[] нод префиксного дерева; наследники задают тип ключа,
+ * который расширяется до long без упаковки.
+ * @param <V> тип значений ассоциативного массива
+ */
+@SuppressWarnings("unchecked")
+abstract class PPrimitiveObjectMap<V> extends PPrimitiveMap {
+
+    /**
+     * Конструктор класса.
+     */
+    protected PPrimitiveObjectMap() {
+        super(false);
+    }
+
+    /**
+     * Конструктор класса.
+     * @param other объект класса PPrimitiveObjectMap
+     */
+    protected PPrimitiveObjectMap(PPrimitiveObjectMap<V> other) {
+        super(other);
+    }
+
+    /**
+     * Возвращает список всех значений в ассоциативном массиве.
+     * @return список всех значений в ассоциативном массиве
+     */
+    public List<V> values() {
+        return (List<V>) values(getHead());
+    }
+
+    /**
+     * Возвращает true если ассоциативный массив содержит значение.
+     * @param value значение
+     * @return true, если ассоциативный массив содержит значение; false, иначе
+     */
+    public boolean containsValue(V value) {
+        return containsValue(getHead().getRoot(), value);
+    }
+
+    protected V getValue(long key) {
+        return getValue(getHead(), key);
+    }
+
+    protected V getValue(int version, long key) {
+        return getValue(getHead(version), key);
+    }
+
+    protected void putValue(long key, V value) {
+        setParent(value);
+        put(key, value, 0);
+    }
+
+    protected V removeValue(long key) {
+        V value = getValue(key);
+        delete(key);
+        return value;
+    }
+
+    private V getValue(HeadPrimitiveMap head, long key) {
+        LongTrieNode node = find(head, key);
+        return (node == null) ? null : (V) node.getValue(indexOf(node, key));
+    }
+}
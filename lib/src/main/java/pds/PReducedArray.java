@@ -0,0 +1,107 @@
+package pds;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Персистентный массив со свертками диапазонов.
+ * Внутренние ноды двоичного дерева кэшируют свертку своего поддерева по ассоциативной операции,
+ * поэтому свертка любого диапазона индексов выполняется за O(log n) после первого обращения к поддереву.
+ * Ноды, скопированные при изменении массива, теряют кэш, остальные ноды разделяются версиями вместе с ним.
+ * @param <E> тип элементов в массиве
+ */
+public class PReducedArray<E> extends PArray<E> {
+
+    /* Нейтральный элемент операции */
+    private final E identity;
+    /* Ассоциативная операция */
+    private final BinaryOperator<E> operator;
+
+    /**
+     * Конструктор класса с ограниченным размером массива.
+     * @param height высота (глубина) двоичного дерева, определяющая максимальный размер массива
+     * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного массива
+     * @param identity нейтральный элемент операции
+     * @param operator ассоциативная операция
+     */
+    public PReducedArray(int height, int bitsPerNode, E identity, BinaryOperator<E> operator) {
+        super(height, bitsPerNode);
+        this.identity = identity;
+        this.operator = operator;
+    }
+
+    /**
+     * Конструктор класса без ограничения размера массива.
+     * @param bitsPerNode число бит на каждую ноду двоичного дерева персистентного массива
+     * @param identity нейтральный элемент операции
+     * @param operator ассоциативная операция
+     */
+    public PReducedArray(int bitsPerNode, E identity, BinaryOperator<E> operator) {
+        super(bitsPerNode);
+        this.identity = identity;
+        this.operator = operator;
+    }
+
+    /**
+     * Конструктор класса со значениями по умолчанию (bitsPerNode = 2, без ограничения размера).
+     * @param identity нейтральный элемент операции
+     * @param operator ассоциативная операция
+     */
+    public PReducedArray(E identity, BinaryOperator<E> operator) {
+        this(2, identity, operator);
+    }
+
+    /**
+     * Конструктор класса.
+     * @param other объект класса PReducedArray
+     */
+    public PReducedArray(PReducedArray<E> other) {
+        super(other);
+        this.identity = other.identity;
+        this.operator = other.operator;
+    }
+
+    /**
+     * Возвращает свертку всех элементов текущей версии персистентного массива.
+     * @return свертка элементов; нейтральный элемент, если массив пуст
+     */
+    public E reduce() {
+        return reduce(0, size());
+    }
+
+    /**
+     * Возвращает свертку элементов текущей версии с индексами от from (включительно) до to (не включительно).
+     * @param from индекс первого элемента
+     * @param to индекс, следующий за индексом последнего элемента
+     * @return свертка элементов диапазона; нейтральный элемент, если диапазон пуст
+     */
+    public E reduce(int from, int to) {
+        return reduce(from, to, this.identity, this.operator);
+    }
+
+    /**
+     * Возвращает свертку элементов указанной версии с индексами от from (включительно) до to (не включительно)
+     * без выполнения undo-redo.
+     * @param version номер версии персистентного массива
+     * @param from индекс первого элемента
+     * @param to индекс, следующий за индексом последнего элемента
+     * @return свертка элементов диапазона; нейтральный элемент, если диапазон пуст
+     */
+    public E reduce(int version, int from, int to) {
+        return reduce(version, from, to, this.identity, this.operator);
+    }
+
+    @Override
+    public PReducedArray<E> snapshot(int version) {
+        return (PReducedArray<E>) super.snapshot(version);
+    }
+
+    @Override
+    public PReducedArray<E> slice(int from, int to) {
+        return (PReducedArray<E>) super.slice(from, to);
+    }
+
+    @Override
+    protected PArray<E> newArray() {
+        return new PReducedArray<>(getBitsPerNode(), this.identity, this.operator);
+    }
+}
@@ -0,0 +1,681 @@
+package pds;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import pds.SubClasses.CopyPathClasses.Head;
+import pds.SubClasses.CopyPathClasses.Node;
+import pds.SubClasses.CopyPathClasses.PrimitiveNode;
+
+/**
+ * Операции над версиями относительно сбалансированного префиксного дерева (relaxed radix balanced tree).
+ * Класс не хранит состояния: число бит на ноду и способ создания листьев передаются каждому методу,
+ * переданные версии не изменяются, а ноды используются повторно.
+ * Используется {@link PArray} и вспомогательным индексом {@link PDoublyLinkedList}.
+ */
+@SuppressWarnings("unchecked")
+final class RRBTree {
+
+    private RRBTree() {
+    }
+
+    /**
+     * Создает пустую версию дерева.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @return пустая версия дерева
+     */
+    static <E> Head<E> newHead(int bits, IntFunction<Node<E>> leaves) {
+        return new Head<>(bits, leaves.apply(bits));
+    }
+
+    /**
+     * Возвращает элемент по индексу из версии дерева.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param head версия дерева
+     * @param index индекс элемента
+     * @return элемент версии
+     */
+    static <E> E get(int bits, Head<E> head, int index) {
+        int offset = tailOffset(head);
+        if (index >= offset) {
+            return (E) head.getTail().get(index - offset);
+        }
+        Node<E> node = head.getRoot();
+        for (int shift = getShift(bits, head.getHeight()); shift > 0; shift -= bits) {
+            int id = getChildIndex(node, shift, index);
+            index -= getChildOffset(node, shift, id);
+            node = (Node<E>) node.get(id);
+        }
+        return (E) node.get(index);
+    }
+
+    /**
+     * Возвращает двоичное представление элемента по индексу из версии дерева с примитивными листьями.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param head версия дерева
+     * @param index индекс элемента
+     * @return двоичное представление элемента
+     */
+    static <E> long getBits(int bits, Head<E> head, int index) {
+        int offset = tailOffset(head);
+        if (index >= offset) {
+            return ((PrimitiveNode<E>) head.getTail()).getBits(index - offset);
+        }
+        Node<E> node = head.getRoot();
+        for (int shift = getShift(bits, head.getHeight()); shift > 0; shift -= bits) {
+            int id = getChildIndex(node, shift, index);
+            index -= getChildOffset(node, shift, id);
+            node = (Node<E>) node.get(id);
+        }
+        return ((PrimitiveNode<E>) node).getBits(index);
+    }
+
+    /**
+     * Возвращает новую версию, в которую по индексу вставлен элемент.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @param head версия дерева
+     * @param index индекс вставки, не больше размера версии
+     * @param value вставляемый элемент
+     * @return новая версия дерева
+     */
+    static <E> Head<E> insert(int bits, IntFunction<Node<E>> leaves, Head<E> head, int index, E value) {
+        Head<E> newHead;
+        if (index == head.size()) {
+            newHead = newHead(bits, leaves);
+            newHead.clone(head);
+            add(bits, leaves, newHead, value);
+            return newHead;
+        }
+        newHead = takeFirst(bits, leaves, head, index);
+        add(bits, leaves, newHead, value);
+        return concat(bits, leaves, newHead, dropFirst(bits, leaves, head, index));
+    }
+
+    /**
+     * Возвращает новую версию без элемента с указанным индексом.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @param head версия дерева
+     * @param index индекс удаляемого элемента
+     * @return новая версия дерева
+     */
+    static <E> Head<E> delete(int bits, IntFunction<Node<E>> leaves, Head<E> head, int index) {
+        return concat(bits, leaves, takeFirst(bits, leaves, head, index), dropFirst(bits, leaves, head, index + 1));
+    }
+
+    /**
+     * Добавляет элемент в конец версии на месте; версия должна принадлежать вызывающему.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @param head изменяемая версия дерева
+     * @param value добавляемый элемент
+     */
+    static <E> void add(int bits, IntFunction<Node<E>> leaves, Head<E> head, E value) {
+        if (head.getTail().isFull()) {
+            pushTail(bits, leaves, head, null);
+        }
+        head.getTail().add(value);
+        head.setSize(head.size() + 1);
+    }
+
+    /**
+     * Возвращает новую версию, в конец которой добавлены элементы.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @param oldHead версия дерева
+     * @param values добавляемые элементы
+     * @return новая версия дерева
+     */
+    static <E> Head<E> addAll(int bits, IntFunction<Node<E>> leaves, Head<E> oldHead, Object[] values) {
+        Head<E> head = newHead(bits, leaves);
+        head.clone(oldHead);
+        int count = 0;
+        if (head.size() > 0) {
+            count = Math.min(values.length, (1 << bits) - head.getTail().getCount());
+            for (int i = 0; i < count; i++) {
+                head.getTail().add(values[i]);
+            }
+            head.setSize(head.size() + count);
+        }
+        if (count == values.length) {
+            return head;
+        }
+        return concat(bits, leaves, head, build(bits, leaves, values, count, values.length));
+    }
+
+    /**
+     * Возвращает новую версию, в начало которой добавлены элементы.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @param head версия дерева
+     * @param values добавляемые элементы
+     * @return новая версия дерева
+     */
+    static <E> Head<E> addAllFirst(int bits, IntFunction<Node<E>> leaves, Head<E> head, Object[] values) {
+        return concat(bits, leaves, build(bits, leaves, values, 0, values.length), head);
+    }
+
+    /**
+     * Строит версию дерева из элементов массива за один проход снизу вверх.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @param values элементы
+     * @param from индекс первого элемента
+     * @param to индекс, следующий за индексом последнего элемента
+     * @return новая версия дерева
+     */
+    static <E> Head<E> build(int bits, IntFunction<Node<E>> leaves, Object[] values, int from, int to) {
+        Head<E> head = newHead(bits, leaves);
+        if (from == to) {
+            return head;
+        }
+        int width = 1 << bits;
+        int tailFrom = to - ((to - from - 1) % width + 1);
+        List<Node<E>> nodes = new ArrayList<>((tailFrom - from) / width);
+        for (int i = from; i < tailFrom; i += width) {
+            Node<E> leaf = leaves.apply(bits);
+            fill(leaf, values, i, i + width);
+            nodes.add(leaf);
+        }
+        fill(head.getTail(), values, tailFrom, to);
+        head.setSize(to - from);
+        if (nodes.isEmpty()) {
+            return head;
+        }
+        int height = 1;
+        while (nodes.size() > 1) {
+            List<Node<E>> parents = new ArrayList<>((nodes.size() - 1) / width + 1);
+            for (int i = 0; i < nodes.size(); i += width) {
+                Node<E> parent = new Node<>(bits);
+                for (int j = i; j < Math.min(i + width, nodes.size()); j++) {
+                    parent.add(nodes.get(j));
+                }
+                parents.add(parent);
+            }
+            nodes = parents;
+            height++;
+        }
+        head.setRoot(nodes.get(0));
+        head.setHeight(height);
+        return head;
+    }
+
+    /**
+     * Переносит заполненный хвост версии в дерево на месте; ноды с меткой edit изменяются без копирования.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @param head изменяемая версия дерева
+     * @param edit метка изменяемых нод или null
+     */
+    static <E> void pushTail(int bits, IntFunction<Node<E>> leaves, Head<E> head, Object edit) {
+        Node<E> tail = head.getTail();
+        int offset = tailOffset(head);
+        if (offset == 0) {
+            head.setRoot(tail);
+            head.setHeight(1);
+        } else {
+            int shift = getShift(bits, head.getHeight());
+            Node<E> root = null;
+            if (shift > 0) {
+                root = pushTail(bits, head.getRoot(), shift, offset, tail, edit);
+            }
+            if (root == null) {
+                root = newNode(bits, edit);
+                root.add(head.getRoot());
+                root.add(newPath(bits, shift, tail, edit));
+                if (offset != getCapacity(bits, head.getHeight())) {
+                    int[] sizes = new int[1 << bits];
+                    sizes[0] = offset;
+                    sizes[1] = offset + tail.getCount();
+                    root.setSizes(sizes);
+                }
+                head.setHeight(head.getHeight() + 1);
+            }
+            head.setRoot(root);
+        }
+        head.setTail(newLeaf(bits, leaves, edit));
+    }
+
+    /**
+     * Возвращает новую версию, содержащую первые size элементов переданной версии.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @param head версия дерева
+     * @param size число оставляемых элементов
+     * @return новая версия дерева
+     */
+    static <E> Head<E> takeFirst(int bits, IntFunction<Node<E>> leaves, Head<E> head, int size) {
+        Head<E> newHead = newHead(bits, leaves);
+        if (size == 0) {
+            return newHead;
+        }
+        int offset = tailOffset(head);
+        newHead.setSize(size);
+        if (size > offset) {
+            newHead.setRoot(head.getRoot());
+            newHead.setHeight(head.getHeight());
+            newHead.getTail().partClone(head.getTail(), size - offset - 1);
+            return newHead;
+        }
+        int index = size - 1;
+        Node<E> node = head.getRoot();
+        for (int shift = getShift(bits, head.getHeight()); shift > 0; shift -= bits) {
+            int id = getChildIndex(node, shift, index);
+            index -= getChildOffset(node, shift, id);
+            node = (Node<E>) node.get(id);
+        }
+        newHead.getTail().partClone(node, index);
+        int leafOffset = size - 1 - index;
+        if (leafOffset > 0) {
+            newHead.setRoot(takeFirst(bits, head.getRoot(), getShift(bits, head.getHeight()), offset, leafOffset));
+            newHead.setHeight(head.getHeight());
+            collapse(newHead);
+        }
+        return newHead;
+    }
+
+    /**
+     * Возвращает новую версию без первых count элементов переданной версии.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @param head версия дерева
+     * @param count число отбрасываемых элементов
+     * @return новая версия дерева
+     */
+    static <E> Head<E> dropFirst(int bits, IntFunction<Node<E>> leaves, Head<E> head, int count) {
+        Head<E> newHead = newHead(bits, leaves);
+        if (count == head.size()) {
+            return newHead;
+        }
+        int offset = tailOffset(head);
+        newHead.setSize(head.size() - count);
+        if (count >= offset) {
+            Node<E> tail = head.getTail();
+            newHead.getTail().append(tail, count - offset, tail.getCount());
+            return newHead;
+        }
+        newHead.getTail().clone(head.getTail());
+        newHead.setRoot(dropFirst(bits, leaves, head.getRoot(), getShift(bits, head.getHeight()), offset, count));
+        newHead.setHeight(head.getHeight());
+        collapse(newHead);
+        return newHead;
+    }
+
+    /**
+     * Возвращает новую версию, содержащую элементы обеих версий; ноды обеих версий используются повторно.
+     * @param <E> тип элементов
+     * @param bits число бит на каждую ноду дерева
+     * @param leaves фабрика пустых листьев по числу бит на ноду
+     * @param left версия, элементы которой идут первыми
+     * @param right версия, элементы которой идут следом
+     * @return новая версия дерева
+     */
+    static <E> Head<E> concat(int bits, IntFunction<Node<E>> leaves, Head<E> left, Head<E> right) {
+        Head<E> head = newHead(bits, leaves);
+        if (left.size() == 0) {
+            head.clone(right);
+            return head;
+        }
+        head.clone(left);
+        if (tailOffset(right) == 0) {
+            Node<E> tail = right.getTail();
+            int from = 0;
+            while (from < tail.getCount()) {
+                if (head.getTail().isFull()) {
+                    pushTail(bits, leaves, head, null);
+                }
+                int to = Math.min(tail.getCount(), from + (1 << bits) - head.getTail().getCount());
+                head.getTail().append(tail, from, to);
+                head.setSize(head.size() + to - from);
+                from = to;
+            }
+            return head;
+        }
+        pushTail(bits, leaves, head, null);
+        Node<E> root = concat(bits, leaves, head.getRoot(), head.getHeight(), right.getRoot(), right.getHeight());
+        head.setRoot(root);
+        head.setHeight(Math.max(head.getHeight(), right.getHeight()) + 1);
+        head.getTail().clone(right.getTail());
+        head.setSize(left.size() + right.size());
+        collapse(head);
+        return head;
+    }
+
+    /**
+     * Возвращает ноду, которую можно изменять под меткой edit: саму ноду, если она помечена, иначе ее копию.
+     * @param <E> тип элементов
+     * @param node нода дерева
+     * @param edit метка изменяемых нод или null
+     * @return изменяемая нода
+     */
+    static <E> Node<E> editable(Node<E> node, Object edit) {
+        if ((edit != null) && (node.getEdit() == edit)) {
+            return node;
+        }
+        Node<E> newNode = node.copy();
+        newNode.setEdit(edit);
+        return newNode;
+    }
+
+    static <E> int getChildIndex(Node<E> node, int shift, int index) {
+        int id = index >> shift;
+        int[] sizes = node.getSizes();
+        if (sizes != null) {
+            while (sizes[id] <= index) {
+                id++;
+            }
+        }
+        return id;
+    }
+
+    static <E> int getChildOffset(Node<E> node, int shift, int id) {
+        if (id == 0) {
+            return 0;
+        }
+        int[] sizes = node.getSizes();
+        if (sizes != null) {
+            return sizes[id - 1];
+        }
+        return id << shift;
+    }
+
+    static <E> int getChildOffset(Node<E> node, int shift, int id, int size) {
+        if (id == node.getCount()) {
+            return size;
+        }
+        return getChildOffset(node, shift, id);
+    }
+
+    static <E> int tailOffset(Head<E> head) {
+        return head.size() - head.getTail().getCount();
+    }
+
+    static int getShift(int bits, int height) {
+        return (height - 1) * bits;
+    }
+
+    static int getCapacity(int bits, int height) {
+        if (bits * height >= Integer.SIZE - 1) {
+            return Integer.MAX_VALUE;
+        }
+        return 1 << (bits * height);
+    }
+
+    private static <E> void fill(Node<E> leaf, Object[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            leaf.add(values[i]);
+        }
+    }
+
+    private static <E> Node<E> pushTail(int bits, Node<E> node, int shift, int size, Node<E> tail, Object edit) {
+        int last = node.getCount() - 1;
+        int lastSize = size - getChildOffset(node, shift, last);
+        Node<E> newNode;
+        if (shift > bits) {
+            Node<E> child = pushTail(bits, (Node<E>) node.get(last), shift - bits, lastSize, tail, edit);
+            if (child != null) {
+                newNode = editable(node, edit);
+                newNode.set(last, child);
+                if (newNode.getSizes() != null) {
+                    newNode.getSizes()[last] += tail.getCount();
+                }
+                return newNode;
+            }
+        }
+        if (node.isFull()) {
+            return null;
+        }
+        newNode = editable(node, edit);
+        if ((newNode.getSizes() == null) && (lastSize != 1 << shift)) {
+            int[] sizes = new int[1 << bits];
+            for (int i = 0; i < last; i++) {
+                sizes[i] = (i + 1) << shift;
+            }
+            sizes[last] = size;
+            newNode.setSizes(sizes);
+        }
+        if (newNode.getSizes() != null) {
+            newNode.getSizes()[last + 1] = size + tail.getCount();
+        }
+        newNode.add(newPath(bits, shift - bits, tail, edit));
+        return newNode;
+    }
+
+    private static <E> Node<E> newPath(int bits, int shift, Node<E> tail, Object edit) {
+        if (shift == 0) {
+            return tail;
+        }
+        Node<E> node = newNode(bits, edit);
+        node.add(newPath(bits, shift - bits, tail, edit));
+        return node;
+    }
+
+    private static <E> Node<E> takeFirst(int bits, Node<E> node, int shift, int size, int count) {
+        if (count == size) {
+            return node;
+        }
+        int id = getChildIndex(node, shift, count - 1);
+        int childOffset = getChildOffset(node, shift, id);
+        int childSize = getChildOffset(node, shift, id + 1, size) - childOffset;
+        Node<E> newNode = new Node<>(bits);
+        newNode.partClone(node, id);
+        newNode.set(id, takeFirst(bits, (Node<E>) node.get(id), shift - bits, childSize, count - childOffset));
+        if (newNode.getSizes() != null) {
+            newNode.getSizes()[id] = count;
+        }
+        return newNode;
+    }
+
+    private static <E> Node<E> dropFirst(int bits, IntFunction<Node<E>> leaves, Node<E> node, int shift, int size, int count) {
+        if (count == 0) {
+            return node;
+        }
+        if (shift == 0) {
+            Node<E> leaf = leaves.apply(bits);
+            leaf.append(node, count, node.getCount());
+            return leaf;
+        }
+        Node<E> newNode = new Node<>(bits);
+        int id = getChildIndex(node, shift, count);
+        int childOffset = getChildOffset(node, shift, id);
+        int childSize = getChildOffset(node, shift, id + 1, size) - childOffset;
+        newNode.add(dropFirst(bits, leaves, (Node<E>) node.get(id), shift - bits, childSize, count - childOffset));
+        newNode.append(node, id + 1, node.getCount());
+        if ((node.getSizes() != null) || (count != childOffset)) {
+            int[] sizes = new int[1 << bits];
+            for (int i = id; i < node.getCount(); i++) {
+                sizes[i - id] = getChildOffset(node, shift, i + 1, size) - count;
+            }
+            newNode.setSizes(sizes);
+        }
+        return newNode;
+    }
+
+    private static <E> Node<E> concat(int bits, IntFunction<Node<E>> leaves, Node<E> left, int leftHeight, Node<E> right, int rightHeight) {
+        if (leftHeight > rightHeight) {
+            Node<E> middle = concat(bits, leaves, (Node<E>) left.get(left.getCount() - 1), leftHeight - 1, right, rightHeight);
+            return rebalance(bits, leaves, left, middle, null, leftHeight);
+        }
+        if (leftHeight < rightHeight) {
+            Node<E> middle = concat(bits, leaves, left, leftHeight, (Node<E>) right.get(0), rightHeight - 1);
+            return rebalance(bits, leaves, null, middle, right, rightHeight);
+        }
+        if (leftHeight == 1) {
+            Node<E> node = new Node<>(bits);
+            if (left.getCount() + right.getCount() <= 1 << bits) {
+                Node<E> leaf = left.copy();
+                leaf.append(right, 0, right.getCount());
+                node.add(leaf);
+            } else {
+                node.add(left);
+                node.add(right);
+            }
+            setSizes(bits, node, getShift(bits, 2));
+            return node;
+        }
+        Node<E> middle = concat(bits, leaves, (Node<E>) left.get(left.getCount() - 1), leftHeight - 1, (Node<E>) right.get(0), rightHeight - 1);
+        return rebalance(bits, leaves, left, middle, right, leftHeight);
+    }
+
+    private static <E> Node<E> rebalance(int bits, IntFunction<Node<E>> leaves, Node<E> left, Node<E> middle, Node<E> right, int height) {
+        List<Node<E>> nodes = new ArrayList<>();
+        if (left != null) {
+            for (int i = 0; i < left.getCount() - 1; i++) {
+                nodes.add((Node<E>) left.get(i));
+            }
+        }
+        for (int i = 0; i < middle.getCount(); i++) {
+            nodes.add((Node<E>) middle.get(i));
+        }
+        if (right != null) {
+            for (int i = 1; i < right.getCount(); i++) {
+                nodes.add((Node<E>) right.get(i));
+            }
+        }
+        nodes = redistribute(bits, leaves, nodes, height - 1);
+        int shift = getShift(bits, height);
+        int width = 1 << bits;
+        Node<E> node = new Node<>(bits);
+        if (nodes.size() <= width) {
+            Node<E> child = new Node<>(bits);
+            for (int i = 0; i < nodes.size(); i++) {
+                child.add(nodes.get(i));
+            }
+            setSizes(bits, child, shift);
+            node.add(child);
+        } else {
+            Node<E> leftChild = new Node<>(bits);
+            Node<E> rightChild = new Node<>(bits);
+            for (int i = 0; i < nodes.size(); i++) {
+                if (i < width) {
+                    leftChild.add(nodes.get(i));
+                } else {
+                    rightChild.add(nodes.get(i));
+                }
+            }
+            setSizes(bits, leftChild, shift);
+            setSizes(bits, rightChild, shift);
+            node.add(leftChild);
+            node.add(rightChild);
+        }
+        setSizes(bits, node, shift + bits);
+        return node;
+    }
+
+    private static <E> List<Node<E>> redistribute(int bits, IntFunction<Node<E>> leaves, List<Node<E>> nodes, int height) {
+        int width = 1 << bits;
+        int[] counts = new int[nodes.size()];
+        int total = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            counts[i] = nodes.get(i).getCount();
+            total += counts[i];
+        }
+        int optimal = (total - 1) / width + 1;
+        int length = nodes.size();
+        int i = 0;
+        while (optimal + 2 < length) {
+            while (counts[i] > width - 1) {
+                i++;
+            }
+            int remaining = counts[i];
+            do {
+                int count = Math.min(remaining + counts[i + 1], width);
+                counts[i] = count;
+                remaining = remaining + counts[i + 1] - count;
+                i++;
+            } while (remaining > 0);
+            for (int j = i; j < length - 1; j++) {
+                counts[j] = counts[j + 1];
+            }
+            length--;
+            i--;
+        }
+        List<Node<E>> result = new ArrayList<>(length);
+        int id = 0;
+        int offset = 0;
+        for (int k = 0; k < length; k++) {
+            Node<E> source = nodes.get(id);
+            if ((offset == 0) && (source.getCount() == counts[k])) {
+                result.add(source);
+                id++;
+                continue;
+            }
+            Node<E> node = (height > 1) ? new Node<>(bits) : leaves.apply(bits);
+            while (node.getCount() < counts[k]) {
+                source = nodes.get(id);
+                int count = Math.min(counts[k] - node.getCount(), source.getCount() - offset);
+                node.append(source, offset, offset + count);
+                offset += count;
+                if (offset == source.getCount()) {
+                    id++;
+                    offset = 0;
+                }
+            }
+            if (height > 1) {
+                setSizes(bits, node, getShift(bits, height));
+            }
+            result.add(node);
+        }
+        return result;
+    }
+
+    private static <E> void setSizes(int bits, Node<E> node, int shift) {
+        int[] sizes = new int[1 << bits];
+        boolean relaxed = false;
+        int size = 0;
+        for (int i = 0; i < node.getCount(); i++) {
+            int childSize = getSize(bits, (Node<E>) node.get(i), shift - bits);
+            if ((i < node.getCount() - 1) && (childSize != 1 << shift)) {
+                relaxed = true;
+            }
+            size += childSize;
+            sizes[i] = size;
+        }
+        node.setSizes(relaxed ? sizes : null);
+    }
+
+    private static <E> int getSize(int bits, Node<E> node, int shift) {
+        if (shift == 0) {
+            return node.getCount();
+        }
+        if (node.getSizes() != null) {
+            return node.getSizes()[node.getCount() - 1];
+        }
+        int last = node.getCount() - 1;
+        return (last << shift) + getSize(bits, (Node<E>) node.get(last), shift - bits);
+    }
+
+    private static <E> void collapse(Head<E> head) {
+        while ((head.getHeight() > 1) && (head.getRoot().getCount() == 1)) {
+            head.setRoot((Node<E>) head.getRoot().get(0));
+            head.setHeight(head.getHeight() - 1);
+        }
+    }
+
+    private static <E> Node<E> newLeaf(int bits, IntFunction<Node<E>> leaves, Object edit) {
+        Node<E> node = leaves.apply(bits);
+        node.setEdit(edit);
+        return node;
+    }
+
+    private static <E> Node<E> newNode(int bits, Object edit) {
+        Node<E> node = new Node<>(bits);
+        node.setEdit(edit);
+        return node;
+    }
+}
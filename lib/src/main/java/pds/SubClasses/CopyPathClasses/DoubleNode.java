@@ -0,0 +1,86 @@
+package pds.SubClasses.CopyPathClasses;
+
+public class DoubleNode extends PrimitiveNode<Double> {
+
+    private double[] values;
+
+    public DoubleNode(int bits) {
+        this.size = (int) Math.pow(2, bits);
+        this.count = 0;
+        this.values = new double[this.size];
+    }
+
+    private DoubleNode() {
+        super();
+    }
+
+    @Override
+    public Node<Double> copy() {
+        DoubleNode node = new DoubleNode();
+        node.clone(this);
+        return node;
+    }
+
+    @Override
+    public void clone(Node<Double> node) {
+        DoubleNode other = (DoubleNode) node;
+        this.size = other.size;
+        this.count = other.count;
+        this.values = other.values.clone();
+    }
+
+    @Override
+    public void partClone(Node<Double> node, int index) {
+        DoubleNode other = (DoubleNode) node;
+        this.size = other.size;
+        this.count = index + 1;
+        System.arraycopy(other.values, 0, this.values, 0, index + 1);
+    }
+
+    @Override
+    public void append(Node<Double> node, int from, int to) {
+        System.arraycopy(((DoubleNode) node).values, from, this.values, this.count, to - from);
+        this.count = this.count + to - from;
+    }
+
+    @Override
+    public void add(Object element) {
+        this.values[this.count] = (Double) element;
+        this.count = this.count + 1;
+    }
+
+    @Override
+    public void set(int index, Object element) {
+        this.values[index] = (Double) element;
+    }
+
+    @Override
+    public Object pop() {
+        this.count = this.count - 1;
+        return this.values[this.count];
+    }
+
+    @Override
+    public Object get(int index) {
+        return this.values[index];
+    }
+
+    @Override
+    public int indexOf(Object value, int from, int to) {
+        if (!(value instanceof Double)) {
+            return -1;
+        }
+        long key = Double.doubleToLongBits((Double) value);
+        for (int i = from; i < to; i++) {
+            if (Double.doubleToLongBits(this.values[i]) == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long getBits(int index) {
+        return Double.doubleToRawLongBits(this.values[index]);
+    }
+}
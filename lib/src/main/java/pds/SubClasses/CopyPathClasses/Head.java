@@ -3,27 +3,29 @@ package pds.SubClasses.CopyPathClasses;
 public class Head<E> {
     
     protected int size;
+    protected int height;
     protected int bitsPerNode;
     protected Node<E> root;
+    protected Node<E> tail;
 
     public Head(int bitsPerNode) {
+        this(bitsPerNode, new Node<>(bitsPerNode));
+    }
+
+    public Head(int bitsPerNode, Node<E> tail) {
         this.size = 0;
+        this.height = 1;
         this.bitsPerNode = bitsPerNode;
         this.root = new Node<>(bitsPerNode);
+        this.tail = tail;
     }
 
     public void clone(Head<E> other) {
         this.size = other.size;
+        this.height = other.height;
         this.bitsPerNode = other.bitsPerNode;
-        this.root = new Node<>(this.bitsPerNode);
-        this.root.clone(other.root);
-    }
-
-    public void partClone(Head<E> other, int index) {
-        this.size = other.size;
-        this.bitsPerNode = other.bitsPerNode;
-        this.root = new Node<>(this.bitsPerNode);
-        this.root.partClone(other.root, index);
+        this.root = other.root;
+        this.tail = other.tail.copy();
     }
 
     public int size() {
@@ -38,6 +40,14 @@ public class Head<E> {
         this.size = size;
     }
 
+    public int getHeight() {
+        return this.height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
     public int getBitsPerNode() {
         return this.bitsPerNode;
     }
@@ -53,4 +63,12 @@ public class Head<E> {
     public void setRoot(Node<E> root) {
         this.root = root;
     }
+
+    public Node<E> getTail() {
+        return this.tail;
+    }
+
+    public void setTail(Node<E> tail) {
+        this.tail = tail;
+    }
 }
\ No newline at end of file
@@ -1,46 +1,49 @@
 package pds.SubClasses.CopyPathClasses;
 
-import java.util.LinkedList;
+import pds.SubClasses.PDoublyLinkedListClasses.FreeSlots;
 
 public class HeadList<E> extends Head<E> {
 
     protected int width;
-    protected Integer first;
-    protected Integer last;
-    protected LinkedList<Integer> emptyIndexes;
+    protected int first;
+    protected int last;
+    protected FreeSlots emptyIndexes;
+    protected Integer hash;
+    protected Head<Integer> order;
 
     public HeadList(int bitsPerNode) {
         super(bitsPerNode);
         this.bitsPerNode = bitsPerNode;
-        this.first = null;
-        this.last = null;
-        this.emptyIndexes = new LinkedList<>();
+        this.first = -1;
+        this.last = -1;
+        this.emptyIndexes = FreeSlots.empty();
     }
 
     public void clone(HeadList<E> other) {
         this.size = other.getSize();
+        this.height = other.getHeight();
         this.width = other.getWidth();
         this.bitsPerNode = other.bitsPerNode;
-        this.root = new Node<>(this.bitsPerNode);
-        this.root.clone(other.root);      
+        this.root = other.root.copy();
         this.first = other.first;
         this.last = other.last;
         this.emptyIndexes = other.emptyIndexes;
+        this.order = other.order;
     }
 
-    public Integer getFirst() {
+    public int getFirst() {
         return first;
     }
 
-    public void setFirst(Integer first) {
+    public void setFirst(int first) {
         this.first = first;
     }
 
-    public Integer getLast() {
+    public int getLast() {
         return last;
     }
 
-    public void setLast(Integer last) {
+    public void setLast(int last) {
         this.last = last;
     }
 
@@ -56,16 +59,17 @@ public class HeadList<E> extends Head<E> {
         this.size = size;
     }
 
-    public Integer pollEmptyIndex() {
-        if (this.emptyIndexes.size() == 0) {
+    public int pollEmptyIndex() {
+        int index = this.emptyIndexes.first();
+        if (index < 0) {
             return this.width;
-        } else {
-            return this.emptyIndexes.poll();
         }
+        this.emptyIndexes = this.emptyIndexes.remove(index);
+        return index;
     }
 
-    public void addEmptyIndex(Integer index) {
-        this.emptyIndexes.add(index);
+    public void addEmptyIndex(int index) {
+        this.emptyIndexes = this.emptyIndexes.add(index);
     }
 
     public int getWidth() {
@@ -76,11 +80,27 @@ public class HeadList<E> extends Head<E> {
         this.width = width;
     }
 
-    public LinkedList<Integer> getEmptyIndexes() {
+    public FreeSlots getEmptyIndexes() {
         return emptyIndexes;
     }
 
-    public void setEmptyIndexes(LinkedList<Integer> emptyIndexes) {
+    public void setEmptyIndexes(FreeSlots emptyIndexes) {
         this.emptyIndexes = emptyIndexes;
     }
+
+    public Integer getHash() {
+        return this.hash;
+    }
+
+    public void setHash(Integer hash) {
+        this.hash = hash;
+    }
+
+    public Head<Integer> getOrder() {
+        return this.order;
+    }
+
+    public void setOrder(Head<Integer> order) {
+        this.order = order;
+    }
 }
\ No newline at end of file
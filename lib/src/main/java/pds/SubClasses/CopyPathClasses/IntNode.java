@@ -0,0 +1,86 @@
+package pds.SubClasses.CopyPathClasses;
+
+public class IntNode extends PrimitiveNode<Integer> {
+
+    private int[] values;
+
+    public IntNode(int bits) {
+        this.size = (int) Math.pow(2, bits);
+        this.count = 0;
+        this.values = new int[this.size];
+    }
+
+    private IntNode() {
+        super();
+    }
+
+    @Override
+    public Node<Integer> copy() {
+        IntNode node = new IntNode();
+        node.clone(this);
+        return node;
+    }
+
+    @Override
+    public void clone(Node<Integer> node) {
+        IntNode other = (IntNode) node;
+        this.size = other.size;
+        this.count = other.count;
+        this.values = other.values.clone();
+    }
+
+    @Override
+    public void partClone(Node<Integer> node, int index) {
+        IntNode other = (IntNode) node;
+        this.size = other.size;
+        this.count = index + 1;
+        System.arraycopy(other.values, 0, this.values, 0, index + 1);
+    }
+
+    @Override
+    public void append(Node<Integer> node, int from, int to) {
+        System.arraycopy(((IntNode) node).values, from, this.values, this.count, to - from);
+        this.count = this.count + to - from;
+    }
+
+    @Override
+    public void add(Object element) {
+        this.values[this.count] = (Integer) element;
+        this.count = this.count + 1;
+    }
+
+    @Override
+    public void set(int index, Object element) {
+        this.values[index] = (Integer) element;
+    }
+
+    @Override
+    public Object pop() {
+        this.count = this.count - 1;
+        return this.values[this.count];
+    }
+
+    @Override
+    public Object get(int index) {
+        return this.values[index];
+    }
+
+    @Override
+    public int indexOf(Object value, int from, int to) {
+        if (!(value instanceof Integer)) {
+            return -1;
+        }
+        int key = (Integer) value;
+        for (int i = from; i < to; i++) {
+            if (this.values[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long getBits(int index) {
+        return this.values[index];
+    }
+}
@@ -0,0 +1,86 @@
+package pds.SubClasses.CopyPathClasses;
+
+public class LongNode extends PrimitiveNode<Long> {
+
+    private long[] values;
+
+    public LongNode(int bits) {
+        this.size = (int) Math.pow(2, bits);
+        this.count = 0;
+        this.values = new long[this.size];
+    }
+
+    private LongNode() {
+        super();
+    }
+
+    @Override
+    public Node<Long> copy() {
+        LongNode node = new LongNode();
+        node.clone(this);
+        return node;
+    }
+
+    @Override
+    public void clone(Node<Long> node) {
+        LongNode other = (LongNode) node;
+        this.size = other.size;
+        this.count = other.count;
+        this.values = other.values.clone();
+    }
+
+    @Override
+    public void partClone(Node<Long> node, int index) {
+        LongNode other = (LongNode) node;
+        this.size = other.size;
+        this.count = index + 1;
+        System.arraycopy(other.values, 0, this.values, 0, index + 1);
+    }
+
+    @Override
+    public void append(Node<Long> node, int from, int to) {
+        System.arraycopy(((LongNode) node).values, from, this.values, this.count, to - from);
+        this.count = this.count + to - from;
+    }
+
+    @Override
+    public void add(Object element) {
+        this.values[this.count] = (Long) element;
+        this.count = this.count + 1;
+    }
+
+    @Override
+    public void set(int index, Object element) {
+        this.values[index] = (Long) element;
+    }
+
+    @Override
+    public Object pop() {
+        this.count = this.count - 1;
+        return this.values[this.count];
+    }
+
+    @Override
+    public Object get(int index) {
+        return this.values[index];
+    }
+
+    @Override
+    public int indexOf(Object value, int from, int to) {
+        if (!(value instanceof Long)) {
+            return -1;
+        }
+        long key = (Long) value;
+        for (int i = from; i < to; i++) {
+            if (this.values[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long getBits(int index) {
+        return this.values[index];
+    }
+}
@@ -2,40 +2,81 @@ package pds.SubClasses.CopyPathClasses;
 
 public class Node<E> {
     
-    private Object[] content;
-    private int size;
-    private int count;
+    protected Object[] content;
+    protected int size;
+    protected int count;
+    protected int[] sizes;
+    protected Object edit;
+    protected Summary<E> summary;
+    protected Integer hash;
 
     public Node(int bits) {
         this.size = (int) Math.pow(2, bits);
         this.count = 0;
         this.content = new Object[this.size];
+        this.sizes = null;
+        this.edit = null;
+    }
+
+    protected Node() {
+    }
+
+    public Node<E> copy() {
+        Node<E> node = new Node<>();
+        node.clone(this);
+        return node;
     }
 
     public void clone(Node<E> node) {
+        this.summary = null;
+        this.hash = null;
         this.size = node.size;
         this.count = node.count;
         this.content = node.content.clone();
+        if (node.sizes != null) {
+            this.sizes = node.sizes.clone();
+        }
     }
 
     public void partClone(Node<E> node, int index) {
+        this.summary = null;
+        this.hash = null;
         this.size = node.size;
         this.count = index + 1;
         for (int i = 0; i <= index; i++) {
             this.content[i] = node.content[i];
         }
+        if (node.sizes != null) {
+            this.sizes = new int[this.size];
+            for (int i = 0; i <= index; i++) {
+                this.sizes[i] = node.sizes[i];
+            }
+        }
+    }
+
+    public void append(Node<E> node, int from, int to) {
+        this.summary = null;
+        this.hash = null;
+        System.arraycopy(node.content, from, this.content, this.count, to - from);
+        this.count = this.count + to - from;
     }
 
     public void add(Object element) {
+        this.summary = null;
+        this.hash = null;
         this.content[this.count] = element;
         this.count = this.count + 1;
     }
 
     public void set(int index, Object element) {
+        this.summary = null;
+        this.hash = null;
         this.content[index] = element;
     }
 
     public Object pop() {
+        this.summary = null;
+        this.hash = null;
         this.count = this.count - 1;
         Object element = this.content[this.count];
         this.content[this.count] = null;
@@ -61,4 +102,36 @@ public class Node<E> {
     public boolean isFull() {
         return this.count == this.size;
     }
+
+    public int[] getSizes() {
+        return this.sizes;
+    }
+
+    public void setSizes(int[] sizes) {
+        this.sizes = sizes;
+    }
+
+    public Object getEdit() {
+        return this.edit;
+    }
+
+    public void setEdit(Object edit) {
+        this.edit = edit;
+    }
+
+    public Summary<E> getSummary() {
+        return this.summary;
+    }
+
+    public void setSummary(Summary<E> summary) {
+        this.summary = summary;
+    }
+
+    public Integer getHash() {
+        return this.hash;
+    }
+
+    public void setHash(Integer hash) {
+        this.hash = hash;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package pds.SubClasses.CopyPathClasses;
+
+public abstract class PrimitiveNode<E> extends Node<E> {
+
+    protected PrimitiveNode() {
+        super();
+    }
+
+    public abstract long getBits(int index);
+
+    public abstract int indexOf(Object value, int from, int to);
+
+    @Override
+    public Object[] get() {
+        Object[] values = new Object[this.size];
+        for (int i = 0; i < this.count; i++) {
+            values[i] = get(i);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,20 @@
+package pds.SubClasses.CopyPathClasses;
+
+public class Summary<E> {
+
+    private final Object key;
+    private final E value;
+
+    public Summary(Object key, E value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public Object getKey() {
+        return this.key;
+    }
+
+    public E getValue() {
+        return this.value;
+    }
+}
@@ -0,0 +1,136 @@
+package pds.SubClasses.PDoublyLinkedListClasses;
+
+public class FreeSlots {
+
+    private static final int LEAF_BITS = 6;
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final FreeSlots EMPTY = new FreeSlots(null, 0);
+
+    private final Node root;
+    private final int height;
+
+    private FreeSlots(Node root, int height) {
+        this.root = root;
+        this.height = height;
+    }
+
+    public static FreeSlots empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return count(this.root);
+    }
+
+    public boolean isEmpty() {
+        return this.root == null;
+    }
+
+    public int first() {
+        if (this.root == null) {
+            return -1;
+        }
+        Node node = this.root;
+        int index = 0;
+        for (int level = this.height; level > 0; level--) {
+            int id = 0;
+            while (node.children[id] == null) {
+                id++;
+            }
+            index += id << shift(level);
+            node = node.children[id];
+        }
+        return index + Long.numberOfTrailingZeros(node.word);
+    }
+
+    public boolean contains(int index) {
+        if ((this.root == null) || (index >= capacity(this.height))) {
+            return false;
+        }
+        Node node = this.root;
+        for (int level = this.height; level > 0; level--) {
+            node = node.children[(index >>> shift(level)) & MASK];
+            if (node == null) {
+                return false;
+            }
+        }
+        return (node.word & (1L << index)) != 0;
+    }
+
+    public FreeSlots add(int index) {
+        Node newRoot = this.root;
+        int newHeight = this.height;
+        while (index >= capacity(newHeight)) {
+            if (newRoot != null) {
+                Node[] children = new Node[MASK + 1];
+                children[0] = newRoot;
+                newRoot = new Node(0, children, newRoot.count);
+            }
+            newHeight++;
+        }
+        newRoot = set(newRoot, newHeight, index, true);
+        return (newRoot == this.root) ? this : new FreeSlots(newRoot, newHeight);
+    }
+
+    public FreeSlots remove(int index) {
+        if (index >= capacity(this.height)) {
+            return this;
+        }
+        Node newRoot = set(this.root, this.height, index, false);
+        if (newRoot == this.root) {
+            return this;
+        }
+        return (newRoot == null) ? EMPTY : new FreeSlots(newRoot, this.height);
+    }
+
+    private static Node set(Node node, int level, int index, boolean free) {
+        if (level == 0) {
+            long word = (node == null) ? 0 : node.word;
+            long bit = 1L << index;
+            long newWord = free ? (word | bit) : (word & ~bit);
+            if (newWord == word) {
+                return node;
+            }
+            return (newWord == 0) ? null : new Node(newWord, null, Long.bitCount(newWord));
+        }
+        int id = (index >>> shift(level)) & MASK;
+        Node child = (node == null) ? null : node.children[id];
+        Node newChild = set(child, level - 1, index, free);
+        if (newChild == child) {
+            return node;
+        }
+        int count = count(node) - count(child) + count(newChild);
+        if (count == 0) {
+            return null;
+        }
+        Node[] children = (node == null) ? new Node[MASK + 1] : node.children.clone();
+        children[id] = newChild;
+        return new Node(0, children, count);
+    }
+
+    private static int count(Node node) {
+        return (node == null) ? 0 : node.count;
+    }
+
+    private static int shift(int level) {
+        return LEAF_BITS + BITS * (level - 1);
+    }
+
+    private static long capacity(int height) {
+        return 1L << (LEAF_BITS + BITS * height);
+    }
+
+    private static class Node {
+
+        private final long word;
+        private final Node[] children;
+        private final int count;
+
+        private Node(long word, Node[] children, int count) {
+            this.word = word;
+            this.children = children;
+            this.count = count;
+        }
+    }
+}
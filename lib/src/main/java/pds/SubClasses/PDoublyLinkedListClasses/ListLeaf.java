@@ -0,0 +1,77 @@
+package pds.SubClasses.PDoublyLinkedListClasses;
+
+import java.util.Arrays;
+
+import pds.SubClasses.CopyPathClasses.Node;
+
+public class ListLeaf<E> extends Node<E> {
+
+    public static final int NONE = -1;
+    private static final int FREE = -2;
+
+    private int[] prev;
+    private int[] next;
+
+    public ListLeaf(int bits) {
+        super(bits);
+        this.prev = new int[this.size];
+        this.next = new int[this.size];
+        Arrays.fill(this.next, FREE);
+    }
+
+    private ListLeaf() {
+        super();
+    }
+
+    @Override
+    public Node<E> copy() {
+        ListLeaf<E> leaf = new ListLeaf<>();
+        leaf.clone(this);
+        return leaf;
+    }
+
+    @Override
+    public void clone(Node<E> node) {
+        super.clone(node);
+        ListLeaf<E> other = (ListLeaf<E>) node;
+        this.prev = other.prev.clone();
+        this.next = other.next.clone();
+    }
+
+    public void put(int index, E value, int prev, int next) {
+        set(index, value);
+        this.prev[index] = prev;
+        this.next[index] = next;
+    }
+
+    public void free(int index) {
+        set(index, null);
+        this.prev[index] = NONE;
+        this.next[index] = FREE;
+    }
+
+    public boolean isUsed(int index) {
+        return this.next[index] != FREE;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E getValue(int index) {
+        return (E) this.content[index];
+    }
+
+    public int getPrev(int index) {
+        return this.prev[index];
+    }
+
+    public void setPrev(int index, int prev) {
+        this.prev[index] = prev;
+    }
+
+    public int getNext(int index) {
+        return this.next[index];
+    }
+
+    public void setNext(int index, int next) {
+        this.next[index] = next;
+    }
+}
@@ -0,0 +1,28 @@
+package pds.SubClasses.PHashMapClasses;
+
+public class CollisionNode {
+
+    private final int hash;
+    private final Object[] entries;
+
+    public CollisionNode(int hash, Object[] entries) {
+        this.hash = hash;
+        this.entries = entries;
+    }
+
+    public int getHash() {
+        return this.hash;
+    }
+
+    public Object[] get() {
+        return this.entries;
+    }
+
+    public Object get(int index) {
+        return this.entries[index];
+    }
+
+    public int getCount() {
+        return this.entries.length;
+    }
+}
@@ -0,0 +1,36 @@
+package pds.SubClasses.PHashMapClasses;
+
+public class HeadMap {
+
+    protected Object[] table;
+    protected int size;
+
+    public HeadMap(int width) {
+        this.table = new Object[width];
+    }
+
+    public void clone(HeadMap other) {
+        this.table = other.table.clone();
+        this.size = other.size;
+    }
+
+    public Object get(int index) {
+        return this.table[index];
+    }
+
+    public void set(int index, Object node) {
+        this.table[index] = node;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getWidth() {
+        return this.table.length;
+    }
+}
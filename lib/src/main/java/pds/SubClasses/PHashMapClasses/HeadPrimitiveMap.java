@@ -0,0 +1,38 @@
+package pds.SubClasses.PHashMapClasses;
+
+/**
+ * Версия персистентного ассоциативного массива с ключами примитивных типов.
+ */
+public class HeadPrimitiveMap {
+
+    /* Корень префиксного дерева */
+    protected LongTrieNode root;
+    /* Число пар "ключ-значение" */
+    protected int size;
+
+    /**
+     * Конструктор класса.
+     * @param root корень префиксного дерева
+     * @param size число пар "ключ-значение"
+     */
+    public HeadPrimitiveMap(LongTrieNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Возвращает корень префиксного дерева.
+     * @return корень префиксного дерева
+     */
+    public LongTrieNode getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Возвращает число пар "ключ-значение" в версии.
+     * @return число пар "ключ-значение"
+     */
+    public int getSize() {
+        return this.size;
+    }
+}
@@ -0,0 +1,254 @@
+package pds.SubClasses.PHashMapClasses;
+
+import java.util.Arrays;
+
+/**
+ * Нода префиксного дерева персистентных ассоциативных массивов с ключами примитивных типов.
+ * Пары "ключ-значение" хранятся в массивах ноды, дочерние ноды - в отдельном массиве; нода неизменяема,
+ * методы изменения возвращают новую ноду, разделяющую с данной неизмененные массивы.
+ */
+public class LongTrieNode {
+
+    /* Битовая маска позиций, занятых парами "ключ-значение" */
+    private final int dataMap;
+    /* Битовая маска позиций, занятых дочерними нодами */
+    private final int nodeMap;
+    /* Ключи пар в порядке позиций */
+    private final long[] keys;
+    /* Значения пар в порядке позиций, если значения хранятся в массиве Object[]; иначе null */
+    private final Object[] values;
+    /* Значения пар в порядке позиций, если значения хранятся в массиве long[]; иначе null */
+    private final long[] longValues;
+    /* Дочерние ноды в порядке позиций */
+    private final LongTrieNode[] nodes;
+
+    private LongTrieNode(int dataMap, int nodeMap, long[] keys, Object[] values, long[] longValues, LongTrieNode[] nodes) {
+        this.dataMap = dataMap;
+        this.nodeMap = nodeMap;
+        this.keys = keys;
+        this.values = values;
+        this.longValues = longValues;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Создает пустую ноду.
+     * @param longValues true, если значения хранятся в массиве long[]; false, если в массиве Object[]
+     * @return пустая нода
+     */
+    public static LongTrieNode empty(boolean longValues) {
+        return new LongTrieNode(0, 0, new long[0], longValues ? null : new Object[0], longValues ? new long[0] : null, new LongTrieNode[0]);
+    }
+
+    /**
+     * Возвращает битовую маску позиций, занятых парами "ключ-значение".
+     * @return битовая маска позиций пар
+     */
+    public int getDataMap() {
+        return this.dataMap;
+    }
+
+    /**
+     * Возвращает битовую маску позиций, занятых дочерними нодами.
+     * @return битовая маска позиций дочерних нод
+     */
+    public int getNodeMap() {
+        return this.nodeMap;
+    }
+
+    /**
+     * Возвращает индекс пары в массивах ноды по биту ее позиции.
+     * @param bit бит позиции пары
+     * @return индекс пары
+     */
+    public int dataIndex(int bit) {
+        return Integer.bitCount(this.dataMap & (bit - 1));
+    }
+
+    /**
+     * Возвращает индекс дочерней ноды в массиве дочерних нод по биту ее позиции.
+     * @param bit бит позиции дочерней ноды
+     * @return индекс дочерней ноды
+     */
+    public int nodeIndex(int bit) {
+        return Integer.bitCount(this.nodeMap & (bit - 1));
+    }
+
+    /**
+     * Возвращает число пар "ключ-значение" в ноде.
+     * @return число пар в ноде
+     */
+    public int getDataCount() {
+        return this.keys.length;
+    }
+
+    /**
+     * Возвращает число дочерних нод.
+     * @return число дочерних нод
+     */
+    public int getNodeCount() {
+        return this.nodes.length;
+    }
+
+    /**
+     * Возвращает true, если значения хранятся в массиве long[].
+     * @return true, если значения хранятся в массиве long[]; false, если в массиве Object[]
+     */
+    public boolean hasLongValues() {
+        return this.longValues != null;
+    }
+
+    /**
+     * Возвращает ключ пары по индексу.
+     * @param index индекс пары
+     * @return ключ пары
+     */
+    public long getKey(int index) {
+        return this.keys[index];
+    }
+
+    /**
+     * Возвращает значение пары по индексу из массива Object[].
+     * @param index индекс пары
+     * @return значение пары; null, если значения хранятся в массиве long[]
+     */
+    public Object getValue(int index) {
+        return (this.values == null) ? null : this.values[index];
+    }
+
+    /**
+     * Возвращает значение пары по индексу из массива long[].
+     * @param index индекс пары
+     * @return значение пары; 0, если значения хранятся в массиве Object[]
+     */
+    public long getLongValue(int index) {
+        return (this.longValues == null) ? 0 : this.longValues[index];
+    }
+
+    /**
+     * Возвращает дочернюю ноду по индексу.
+     * @param index индекс дочерней ноды
+     * @return дочерняя нода
+     */
+    public LongTrieNode getNode(int index) {
+        return this.nodes[index];
+    }
+
+    /**
+     * Возвращает новую ноду с замененным значением пары; массив ключей разделяется с данной нодой.
+     * @param index индекс пары
+     * @param value значение для массива Object[]
+     * @param longValue значение для массива long[]
+     * @return новая нода
+     */
+    public LongTrieNode setValue(int index, Object value, long longValue) {
+        if (this.values != null) {
+            Object[] newValues = this.values.clone();
+            newValues[index] = value;
+            return new LongTrieNode(this.dataMap, this.nodeMap, this.keys, newValues, null, this.nodes);
+        }
+        long[] newLongValues = this.longValues.clone();
+        newLongValues[index] = longValue;
+        return new LongTrieNode(this.dataMap, this.nodeMap, this.keys, null, newLongValues, this.nodes);
+    }
+
+    /**
+     * Возвращает новую ноду с замененной дочерней нодой.
+     * @param bit бит позиции дочерней ноды
+     * @param node новая дочерняя нода
+     * @return новая нода
+     */
+    public LongTrieNode setNode(int bit, LongTrieNode node) {
+        LongTrieNode[] newNodes = this.nodes.clone();
+        newNodes[nodeIndex(bit)] = node;
+        return new LongTrieNode(this.dataMap, this.nodeMap, this.keys, this.values, this.longValues, newNodes);
+    }
+
+    /**
+     * Возвращает новую ноду с добавленной парой "ключ-значение" в свободной позиции.
+     * @param bit бит позиции пары
+     * @param key ключ
+     * @param value значение для массива Object[]
+     * @param longValue значение для массива long[]
+     * @return новая нода
+     */
+    public LongTrieNode insertEntry(int bit, long key, Object value, long longValue) {
+        int index = dataIndex(bit);
+        return new LongTrieNode(this.dataMap | bit, this.nodeMap, insert(this.keys, index, key),
+            (this.values == null) ? null : insert(this.values, index, value),
+            (this.longValues == null) ? null : insert(this.longValues, index, longValue), this.nodes);
+    }
+
+    /**
+     * Возвращает новую ноду с добавленной дочерней нодой в свободной позиции.
+     * @param bit бит позиции дочерней ноды
+     * @param node дочерняя нода
+     * @return новая нода
+     */
+    public LongTrieNode insertNode(int bit, LongTrieNode node) {
+        return new LongTrieNode(this.dataMap, this.nodeMap | bit, this.keys, this.values, this.longValues,
+            insert(this.nodes, nodeIndex(bit), node));
+    }
+
+    /**
+     * Возвращает новую ноду без пары "ключ-значение" в указанной позиции.
+     * @param bit бит позиции пары
+     * @return новая нода
+     */
+    public LongTrieNode removeEntry(int bit) {
+        int index = dataIndex(bit);
+        return new LongTrieNode(this.dataMap & ~bit, this.nodeMap, delete(this.keys, index),
+            (this.values == null) ? null : delete(this.values, index),
+            (this.longValues == null) ? null : delete(this.longValues, index), this.nodes);
+    }
+
+    /**
+     * Возвращает новую ноду, в которой пара в указанной позиции заменена дочерней нодой.
+     * @param bit бит позиции пары
+     * @param node дочерняя нода, содержащая пару
+     * @return новая нода
+     */
+    public LongTrieNode entryToNode(int bit, LongTrieNode node) {
+        return removeEntry(bit).insertNode(bit, node);
+    }
+
+    /**
+     * Возвращает новую ноду, в которой дочерняя нода с единственной парой заменена этой парой.
+     * @param bit бит позиции дочерней ноды
+     * @param node дочерняя нода с единственной парой
+     * @return новая нода
+     */
+    public LongTrieNode nodeToEntry(int bit, LongTrieNode node) {
+        LongTrieNode newNode = new LongTrieNode(this.dataMap, this.nodeMap & ~bit, this.keys, this.values, this.longValues,
+            delete(this.nodes, nodeIndex(bit)));
+        return newNode.insertEntry(bit, node.getKey(0), node.getValue(0), node.getLongValue(0));
+    }
+
+    private static long[] insert(long[] content, int index, long element) {
+        long[] newContent = new long[content.length + 1];
+        System.arraycopy(content, 0, newContent, 0, index);
+        newContent[index] = element;
+        System.arraycopy(content, index, newContent, index + 1, content.length - index);
+        return newContent;
+    }
+
+    private static <T> T[] insert(T[] content, int index, T element) {
+        T[] newContent = Arrays.copyOf(content, content.length + 1);
+        System.arraycopy(content, index, newContent, index + 1, content.length - index);
+        newContent[index] = element;
+        return newContent;
+    }
+
+    private static long[] delete(long[] content, int index) {
+        long[] newContent = new long[content.length - 1];
+        System.arraycopy(content, 0, newContent, 0, index);
+        System.arraycopy(content, index + 1, newContent, index, content.length - index - 1);
+        return newContent;
+    }
+
+    private static <T> T[] delete(T[] content, int index) {
+        T[] newContent = Arrays.copyOf(content, content.length - 1);
+        System.arraycopy(content, index + 1, newContent, index, content.length - index - 1);
+        return newContent;
+    }
+}
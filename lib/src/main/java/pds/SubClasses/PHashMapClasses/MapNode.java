@@ -4,12 +4,18 @@ public class MapNode<K, V> {
 
     private K key;
     private V value;
+    private int hash;
 
     public MapNode(K key, V value) {
         this.key = key;
         this.value = value;
     }
 
+    public MapNode(K key, V value, int hash) {
+        this(key, value);
+        this.hash = hash;
+    }
+
     public K getKey() {
         return this.key;
     }
@@ -22,6 +28,10 @@ public class MapNode<K, V> {
         this.value = value;
     }
 
+    public int getHash() {
+        return this.hash;
+    }
+
     public String toString() {
         return key.toString() + ":" + value.toString();
     }
@@ -0,0 +1,28 @@
+package pds.SubClasses.PHashMapClasses;
+
+public class TrieNode {
+
+    private final int bitmap;
+    private final Object[] content;
+
+    public TrieNode(int bitmap, Object[] content) {
+        this.bitmap = bitmap;
+        this.content = content;
+    }
+
+    public int getBitmap() {
+        return this.bitmap;
+    }
+
+    public Object[] get() {
+        return this.content;
+    }
+
+    public Object get(int index) {
+        return this.content[index];
+    }
+
+    public int getCount() {
+        return this.content.length;
+    }
+}
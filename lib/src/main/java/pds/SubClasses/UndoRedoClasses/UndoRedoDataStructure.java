@@ -82,6 +82,70 @@ public class UndoRedoDataStructure {
         this.versions.newVersion(head);
     }
 
+    protected Object getVersion(int version) {
+        return this.versions.getVersion(version);
+    }
+
+    /**
+     * Сравнивает искомое значение с элементом структуры данных так же, как поиск в списке, полученном {@link #toList() toList}:
+     * вложенные структуры данных сравниваются по их представлению в виде списка.
+     * @param value искомое значение
+     * @param element элемент структуры данных
+     * @return true, если элемент совпадает с искомым значением; false, иначе
+     */
+    protected static boolean matches(Object value, Object element) {
+        if (element instanceof UndoRedoDataStructure) {
+            element = ((UndoRedoDataStructure) element).toList();
+        }
+        if (value == null) {
+            return element == null;
+        }
+        return value.equals(element);
+    }
+
+    /**
+     * Сравнивает два элемента структур данных: вложенные структуры данных сравниваются по их представлению в виде списка.
+     * @param left первый элемент
+     * @param right второй элемент
+     * @return true, если элементы совпадают; false, иначе
+     */
+    protected static boolean same(Object left, Object right) {
+        if (left instanceof UndoRedoDataStructure) {
+            left = ((UndoRedoDataStructure) left).toList();
+        }
+        return matches(left, right);
+    }
+
+    /**
+     * Возвращает хэш-код элемента структуры данных, согласованный с {@link #same(Object, Object) same}.
+     * @param element элемент структуры данных
+     * @return хэш-код элемента
+     */
+    protected static int hash(Object element) {
+        if (element instanceof UndoRedoDataStructure) {
+            element = ((UndoRedoDataStructure) element).toList();
+        }
+        return (element == null) ? 0 : element.hashCode();
+    }
+
+    /**
+     * Возвращает 31 в степени power, как при вычислении {@link List#hashCode() хэш-кода списка}.
+     * @param power степень
+     * @return 31 в степени power с переполнением
+     */
+    protected static int power(int power) {
+        int result = 1;
+        int base = 31;
+        while (power > 0) {
+            if ((power & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+            power >>= 1;
+        }
+        return result;
+    }
+
     protected void setParent(Object object) {
         if (isPersistent(object)) {
             ((UndoRedoDataStructure) object).parent = this;
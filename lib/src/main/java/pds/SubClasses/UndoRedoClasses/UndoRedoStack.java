@@ -18,6 +18,8 @@ public class UndoRedoStack<E> {
     }
 
     public void clone(UndoRedoStack<?> other) {
+        this.undo.clear();
+        this.redo.clear();
         this.undo.addAll(other.getUndo());
         this.redo.addAll(other.getRedo());
     }
@@ -46,6 +48,16 @@ public class UndoRedoStack<E> {
         }
     }
 
+    public Object getVersion(int version) {
+        if ((version < 0) || (version >= countVersions())) {
+            throw new IndexOutOfBoundsException("Неверный номер версии структуры данных");
+        }
+        if (version < this.undo.size()) {
+            return this.undo.get(version);
+        }
+        return this.redo.get(this.redo.size() - 1 - (version - this.undo.size()));
+    }
+
     public int currentVersion() {
         return this.undo.size() - 1;
     }
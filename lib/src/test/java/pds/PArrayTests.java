@@ -4,6 +4,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedList;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -37,6 +42,28 @@ class PArrayTests {
         assertThrowsExactly(IllegalStateException.class, () -> arr.add(9));
     }
 
+    @Test
+    void bulkLoad() {
+        PArray<Integer> array = PArray.of(1, 2, 3, 4, 5);
+        assertEquals("[1, 2, 3, 4, 5]", array.toString());
+        assertEquals(1, array.countVersions());
+
+        PArray<Integer> collected = IntStream.range(0, 1000).boxed().parallel().collect(PArray.collector());
+        assertEquals(1000, collected.size());
+        assertEquals(999, collected.get(999));
+        assertEquals(collected.toList(), PArray.from(new LinkedList<>(collected.toList())).toList());
+
+        PArray<Integer> unbounded = new PArray<>(1);
+        unbounded.addAll(Arrays.asList(1, 2, 3));
+        unbounded.remove(0);
+        unbounded.addAll(Arrays.asList(4, 5, 6, 7, 8, 9, 10));
+        assertEquals("[2, 3, 4, 5, 6, 7, 8, 9, 10]", unbounded.toString());
+        assertEquals(10, unbounded.get(8));
+
+        unbounded.undo();
+        assertEquals("[2, 3]", unbounded.toString());
+    }
+
     @Test
     void get() {
         arr.addAll(Arrays.asList(1, 2, 3, 4));
@@ -57,6 +84,31 @@ class PArrayTests {
         assertEquals(-1, arr.indexOf(9));
     }
 
+    @Test
+    void indexOfLarge() {
+        PArray<Integer> array = new PArray<>(5);
+        for (int i = 0; i < 100000; i++) {
+            array.add(i % 70000);
+        }
+        array.remove(0);
+        assertEquals(69998, array.indexOf(69999));
+        assertEquals(4, array.indexOf(5));
+        assertEquals(29999, array.indexOf(30000));
+        assertEquals(-1, array.indexOf(70000));
+        assertEquals(-1, array.indexOf("1"));
+    }
+
+    @Test
+    void indexOfNested() {
+        PArray<PArray<Integer>> parent = new PArray<>();
+        PArray<Integer> child = new PArray<>();
+        child.add(1);
+        parent.add(new PArray<>());
+        parent.add(child);
+        assertEquals(1, parent.indexOf(Arrays.asList(1)));
+        assertTrue(parent.contains(Arrays.asList()));
+    }
+
     @Test
     void size() {
         arr.addAll(Arrays.asList(1, 2, 3, 4));
@@ -103,6 +155,41 @@ class PArrayTests {
         assertThrowsExactly(IndexOutOfBoundsException.class, () -> arr.remove(3));
     }
 
+    @Test
+    void concat() {
+        PArray<Integer> other = new PArray<>(3, 1);
+        arr.addAll(Arrays.asList(1, 2, 3));
+        other.addAll(Arrays.asList(4, 5, 6));
+
+        arr.concat(other);
+        assertEquals("[1, 2, 3, 4, 5, 6]", arr.toString());
+        assertEquals("[4, 5, 6]", other.toString());
+        assertThrowsExactly(IllegalStateException.class, () -> arr.concat(other));
+
+        arr.add(1, 0);
+        assertEquals("[1, 0, 2, 3, 4, 5, 6]", arr.toString());
+
+        arr.undo();
+        arr.undo();
+        assertEquals("[1, 2, 3]", arr.toString());
+    }
+
+    @Test
+    void slice() {
+        arr.addAll(Arrays.asList(1, 2, 3, 4, 5, 6, 7));
+
+        PArray<Integer> part = arr.slice(2, 5);
+        assertEquals("[3, 4, 5]", part.toString());
+        assertEquals(1, part.countVersions());
+        assertEquals("[]", arr.slice(3, 3).toString());
+        assertThrowsExactly(IndexOutOfBoundsException.class, () -> arr.slice(5, 8));
+
+        part.add(0);
+        part.remove(0);
+        assertEquals("[4, 5, 0]", part.toString());
+        assertEquals("[1, 2, 3, 4, 5, 6, 7]", arr.toString());
+    }
+
     @Test
     void clear() {
         arr.addAll(Arrays.asList(1, 2, 3, 4, 5));
@@ -147,6 +234,209 @@ class PArrayTests {
         assertEquals("[1, 2, 3, 4, 1]", arr.toString());
     }
 
+    @Test
+    void versions() {
+        arr.add(1);
+        arr.add(2);
+        arr.set(0, 3);
+        assertEquals(1, arr.get(1, 0));
+        assertEquals(3, arr.get(3, 0));
+        assertEquals(0, arr.size(0));
+        assertEquals(2, arr.size(2));
+        assertEquals("[1, 2]", arr.snapshot(2).toString());
+
+        arr.undo();
+        assertEquals(3, arr.get(3, 0));
+        assertEquals("[1, 2]", arr.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> arr.size(4));
+    }
+
+    @Test
+    void diff() {
+        PArray<Integer> array = new PArray<>(2);
+        for (int i = 0; i < 1000; i++) {
+            array.add(i);
+        }
+        array.set(5, -1);
+        array.set(700, -1);
+        array.add(1000);
+        assertEquals(Arrays.asList(5, 700, 1000), array.diff(1000, 1003));
+        assertEquals(Arrays.asList(5, 700, 1000), array.diff(1003, 1000));
+        assertEquals(Arrays.asList(), array.diff(1002, 1002));
+
+        array.set(5, 5);
+        assertEquals(Arrays.asList(700, 1000), array.diff(1000, 1004));
+
+        array.remove(998);
+        assertEquals(Arrays.asList(998, 999, 1000), array.diff(1004, 1005));
+        assertEquals(Arrays.asList(5, 998, 999, 1000), array.diff(1003, 1005));
+    }
+
+    @Test
+    void equalsAndHashCode() {
+        PArray<Integer> array = new PArray<>(2);
+        for (int i = 0; i < 1000; i++) {
+            array.add(i);
+        }
+        PArray<Integer> snapshot = array.snapshot(1000);
+        assertEquals(array, snapshot);
+        assertEquals(array.toList().hashCode(), array.hashCode());
+
+        array.set(500, -1);
+        assertNotEquals(array, snapshot);
+        assertEquals(snapshot, array.snapshot(1000));
+
+        array.set(500, 500);
+        PArray<Integer> rebuilt = new PArray<>(3);
+        rebuilt.addAll(Arrays.asList(array.stream().toArray(Integer[]::new)));
+        assertEquals(array, rebuilt);
+        assertEquals(array.hashCode(), rebuilt.hashCode());
+        assertNotEquals(array, array.slice(0, 999));
+    }
+
+    @Test
+    void cursor() {
+        PArray<Integer> array = new PArray<>(2);
+        for (int i = 0; i < 100; i++) {
+            array.add(i);
+        }
+        int sum = 0;
+        for (int value : array) {
+            sum += value;
+        }
+        assertEquals(4950, sum);
+
+        PArray<Integer>.Cursor cursor = array.cursor(50);
+        assertEquals(50, cursor.next());
+        assertEquals(51, cursor.next());
+        assertEquals(51, cursor.previous());
+        assertEquals(50, cursor.previous());
+        assertEquals(49, cursor.previousIndex());
+
+        array.set(0, -1);
+        assertEquals(49, cursor.previous());
+        assertThrowsExactly(UnsupportedOperationException.class, () -> cursor.set(1));
+        assertEquals(-1, array.cursor().next());
+        assertEquals(99, array.cursor(100).previous());
+        PArray<Integer>.Cursor old = cursor;
+        while (old.hasPrevious()) {
+            old.previous();
+        }
+        assertEquals(0, old.next());
+
+        LinkedList<Integer> values = new LinkedList<>();
+        array.forEach(values::add);
+        assertEquals(array.toList(), values);
+    }
+
+    @Test
+    void stream() {
+        PArray<Integer> array = new PArray<>(2);
+        for (int i = 0; i < 1000; i++) {
+            array.add(i);
+        }
+        assertEquals(499500, array.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(499500, array.stream().parallel().mapToInt(Integer::intValue).sum());
+        assertEquals(array.toList(), array.stream().parallel().collect(Collectors.toList()));
+
+        array.remove(10);
+        array.add(500, -1);
+        array.concat(array.slice(3, 600));
+        assertEquals(array.toList(), array.stream().parallel().collect(Collectors.toList()));
+
+        Spliterator<Integer> spliterator = array.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE));
+        long size = spliterator.estimateSize();
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(size, prefix.estimateSize() + spliterator.estimateSize());
+    }
+
+    @Test
+    void growAndShrink() {
+        PArray<Integer> unbounded = new PArray<>(1);
+        assertEquals(1, unbounded.getheight());
+
+        unbounded.addAll(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        assertEquals("[1, 2, 3, 4, 5, 6, 7, 8, 9]", unbounded.toString());
+        assertEquals(3, unbounded.getheight());
+        assertFalse(unbounded.isFull());
+
+        unbounded.remove(4);
+        unbounded.remove(4);
+        unbounded.remove(4);
+        unbounded.remove(4);
+        unbounded.remove(4);
+        assertEquals("[1, 2, 3, 4]", unbounded.toString());
+        assertEquals(1, unbounded.getheight());
+
+        unbounded.clear();
+        assertEquals(1, unbounded.getheight());
+
+        unbounded.undo();
+        assertEquals("[1, 2, 3, 4]", unbounded.toString());
+    }
+
+    @Test
+    void addToTail() {
+        arr.addAll(Arrays.asList(1, 2));
+        arr.add(3);
+        arr.add(4);
+        arr.set(0, 0);
+        assertEquals("[0, 2, 3, 4]", arr.toString());
+
+        arr.undo();
+        assertEquals("[1, 2, 3, 4]", arr.toString());
+
+        arr.undo();
+        arr.undo();
+        assertEquals("[1, 2]", arr.toString());
+        assertEquals(2, arr.get(1));
+    }
+
+    @Test
+    void asTransient() {
+        arr.addAll(Arrays.asList(1, 2));
+
+        PArray.Transient<Integer> tr = arr.asTransient();
+        tr.add(3);
+        tr.addAll(Arrays.asList(4, 5));
+        tr.set(0, 0);
+        assertEquals(5, tr.size());
+        assertEquals(0, tr.get(0));
+        assertEquals("[1, 2]", arr.toString());
+
+        tr.persistent();
+        assertEquals("[0, 2, 3, 4, 5]", arr.toString());
+        assertEquals(3, arr.countVersions());
+        assertThrowsExactly(IllegalStateException.class, () -> tr.add(6));
+
+        arr.undo();
+        assertEquals("[1, 2]", arr.toString());
+
+        arr.redo();
+        arr.asTransient().add(6).add(7).persistent();
+        assertEquals("[0, 2, 3, 4, 5, 6, 7]", arr.toString());
+        arr.undo();
+        assertEquals("[0, 2, 3, 4, 5]", arr.toString());
+    }
+
+    @Test
+    void transientAfterSourceChange() {
+        arr.addAll(Arrays.asList(1, 2));
+
+        PArray.Transient<Integer> tr = arr.asTransient();
+        tr.add(3);
+        arr.add(4);
+        assertThrowsExactly(ConcurrentModificationException.class, tr::persistent);
+        assertEquals("[1, 2, 4]", arr.toString());
+
+        PArray.Transient<Integer> undone = arr.asTransient();
+        undone.set(0, 0);
+        arr.undo();
+        assertThrowsExactly(ConcurrentModificationException.class, undone::persistent);
+        assertEquals("[1, 2]", arr.toString());
+    }
+
     @Test
     void cloneAndChange() {
         arr.addAll(Arrays.asList(1, 2, 3, 4));
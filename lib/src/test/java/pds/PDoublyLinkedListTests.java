@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,12 +42,128 @@ class PDoublyLinkedListTests {
         assertThrowsExactly(IllegalStateException.class, () -> lst.add(9));
     }
 
+    @Test
+    void addAllAfterChanges() {
+        PDoublyLinkedList<Integer> unbounded = new PDoublyLinkedList<>(1);
+        unbounded.addAll(Arrays.asList(1, 2, 3));
+        unbounded.add(4);
+        unbounded.addAll(Arrays.asList(5, 6, 7, 8, 9));
+        assertEquals("[1, 2, 3, 4, 5, 6, 7, 8, 9]", unbounded.toString());
+        assertEquals("[1, 2, 3, 4, 5, 6, 7, 8, 9, null]", unbounded.toArray().toString());
+
+        unbounded.remove(1);
+        unbounded.addAll(Arrays.asList(10, 11));
+        assertEquals("[1, 3, 4, 5, 6, 7, 8, 9, 10, 11]", unbounded.toString());
+        assertEquals(11, unbounded.get(9));
+
+        unbounded.undo();
+        assertEquals("[1, 3, 4, 5, 6, 7, 8, 9]", unbounded.toString());
+    }
+
+    @Test
+    void versions() {
+        lst.add(1);
+        lst.add(2);
+        lst.remove(0);
+        assertEquals(1, lst.get(2, 0));
+        assertEquals(2, lst.get(3, 0));
+        assertEquals(2, lst.size(2));
+        assertEquals(1, lst.size(3));
+
+        PDoublyLinkedList<Integer> snapshot = lst.snapshot(2);
+        snapshot.add(5);
+        assertEquals("[1, 2, 5]", snapshot.toString());
+        assertEquals("[2]", lst.toString());
+    }
+
+    @Test
+    void equalsAndHashCode() {
+        lst.addAll(Arrays.asList(1, 2, 3, 4));
+        PDoublyLinkedList<Integer> snapshot = lst.snapshot(1);
+        assertEquals(lst, snapshot);
+        assertEquals(lst.toList().hashCode(), lst.hashCode());
+
+        lst.remove(0);
+        lst.add(0, 1);
+        assertEquals(lst, snapshot);
+        assertEquals(snapshot.hashCode(), lst.hashCode());
+        assertEquals("[1, 2, 3, 4]", lst.toString());
+
+        lst.add(5);
+        assertNotEquals(lst, snapshot);
+    }
+
+    @Test
+    void equalsAfterReorder() {
+        PDoublyLinkedList<Integer> list = new PDoublyLinkedList<>();
+        list.add(1);
+        list.add(2);
+        list.add(3);
+        PDoublyLinkedList<Integer> snapshot = list.snapshot(list.currentVersion());
+        list.remove(1);
+        list.addLast(2);
+        assertEquals("[1, 3, 2]", list.toString());
+        assertNotEquals(snapshot, list);
+        assertNotEquals(list, snapshot);
+    }
+
+    @Test
+    void stream() {
+        PDoublyLinkedList<Integer> list = new PDoublyLinkedList<>(2);
+        for (int i = 0; i < 3000; i++) {
+            list.add(i);
+        }
+        list.remove(0);
+        list.add(5, -1);
+        assertEquals(list.toList(), list.stream().collect(Collectors.toList()));
+        assertEquals(list.toList(), list.stream().parallel().collect(Collectors.toList()));
+        assertEquals(list.size(), list.stream().parallel().count());
+    }
+
+    @Test
+    void growAndShrink() {
+        PDoublyLinkedList<Integer> unbounded = new PDoublyLinkedList<>(1);
+        assertEquals(1, unbounded.getheight());
+
+        unbounded.addAll(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        assertEquals("[1, 2, 3, 4, 5, 6, 7, 8, 9]", unbounded.toString());
+        assertEquals(4, unbounded.getheight());
+        assertFalse(unbounded.isFull());
+
+        unbounded.clear();
+        assertEquals(1, unbounded.getheight());
+
+        unbounded.undo();
+        assertEquals("[1, 2, 3, 4, 5, 6, 7, 8, 9]", unbounded.toString());
+    }
+
     @Test
     void get() {
         lst.addAll(Arrays.asList(1, 2, 3, 4));
         assertEquals(2, lst.get(1));
     }
 
+    @Test
+    void positionalAccess() {
+        PDoublyLinkedList<Integer> list = new PDoublyLinkedList<>(2);
+        for (int i = 0; i < 1000; i++) {
+            list.add(i);
+        }
+        list.add(0, -1);
+        list.remove(500);
+        list.set(700, -2);
+        assertEquals(-1, list.get(0));
+        assertEquals(0, list.get(1));
+        assertEquals(500, list.get(500));
+        assertEquals(-2, list.get(700));
+        assertEquals(699, list.get(1001, 700));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1000));
+
+        list.add(0, 7);
+        list.set(1, 8);
+        assertEquals("[7, 8, 0, 1]", list.toList().subList(0, 4).toString());
+    }
+
     @Test
     void contains() {
         lst.addAll(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8));
@@ -231,6 +349,226 @@ class PDoublyLinkedListTests {
         assertEquals("[6, 5, 7, 4, 8, null]", lst.toArray().toString());
     }
 
+    @Test
+    void freeSlotsPerVersion() {
+        lst.addAll(Arrays.asList(1, 2, 3, 4, 5));
+        lst.remove(1);
+        lst.undo();
+        lst.add(6);
+        assertEquals("[1, 2, 3, 4, 5, 6]", lst.toString());
+        assertEquals("[1, 2, 3, 4, 5, 6]", lst.toArray().toString());
+
+        lst.undo();
+        lst.redo();
+        lst.remove(0);
+        PDoublyLinkedList<Integer> snapshot = lst.snapshot(1);
+        snapshot.add(7);
+        assertEquals("[1, 2, 3, 4, 5, 7]", snapshot.toString());
+        lst.add(8);
+        assertEquals("[2, 3, 4, 5, 6, 8]", lst.toString());
+        assertEquals("[8, 2, 3, 4, 5, 6]", lst.toArray().toString());
+    }
+
+    @Test
+    void compact() {
+        lst.addAll(Arrays.asList(1, 2, 3, 4, 5));
+        lst.remove(1);
+        lst.add(0, 6);
+        assertEquals("[1, 6, 3, 4, 5, null]", lst.toArray().toString());
+
+        lst.compact();
+        assertEquals("[6, 1, 3, 4, 5]", lst.toString());
+        assertEquals("[6, 1, 3, 4, 5, null]", lst.toArray().toString());
+        lst.undo();
+        assertEquals("[1, 6, 3, 4, 5, null]", lst.toArray().toString());
+
+        PDoublyLinkedList<Integer> list = new PDoublyLinkedList<>(2);
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        for (int i = 0; i < 80; i++) {
+            list.remove(0);
+        }
+        assertEquals(20, list.size());
+        assertEquals(24, list.toArray().size());
+        assertEquals(80, list.get(0));
+        assertEquals(99, list.get(19));
+    }
+
+    @Test
+    void nullElements() {
+        lst.add(null);
+        lst.add(1);
+        lst.add(null);
+        assertEquals("[null, 1, null]", lst.toString());
+        assertEquals(0, lst.indexOf(null));
+        assertTrue(lst.contains(null));
+
+        lst.remove(0);
+        assertEquals("[1, null]", lst.toString());
+        lst.add(0, null);
+        assertEquals("[null, 1, null]", lst.toString());
+        assertEquals(null, lst.get(2));
+        lst.set(1, null);
+        assertEquals(-1, lst.indexOf(1));
+        lst.undo();
+        assertEquals(1, lst.indexOf(1));
+    }
+
+    @Test
+    void deque() {
+        assertNull(lst.peekFirst());
+        assertNull(lst.pollLast());
+        assertThrows(IllegalStateException.class, () -> lst.removeFirst());
+
+        lst.addLast(2);
+        lst.addFirst(1);
+        lst.addLast(3);
+        assertEquals("[1, 2, 3]", lst.toString());
+        assertEquals(1, lst.peekFirst());
+        assertEquals(3, lst.peekLast());
+        assertEquals(1, lst.get(0));
+
+        assertEquals(1, lst.pollFirst());
+        assertEquals(3, lst.removeLast());
+        assertEquals("[2]", lst.toString());
+        lst.addFirst(0);
+        assertEquals("[0, 2]", lst.toString());
+        assertEquals(2, lst.get(1));
+
+        assertEquals(0, lst.removeFirst());
+        assertEquals(2, lst.pollLast());
+        assertTrue(lst.isEmpty());
+        lst.undo();
+        lst.undo();
+        assertEquals("[0, 2]", lst.toString());
+    }
+
+    @Test
+    void concatAndSplit() {
+        PDoublyLinkedList<Integer> left = new PDoublyLinkedList<>(2);
+        PDoublyLinkedList<Integer> right = new PDoublyLinkedList<>(1);
+        left.addAll(Arrays.asList(1, 2, 3));
+        left.remove(1);
+        right.addAll(Arrays.asList(4, 5, 6));
+        right.add(0, 3);
+        left.concat(right);
+        assertEquals("[1, 3, 3, 4, 5, 6]", left.toString());
+        assertEquals(4, left.get(3));
+        assertEquals("[3, 4, 5, 6]", right.toString());
+
+        PDoublyLinkedList<Integer> tail = left.splitAt(2);
+        assertEquals("[1, 3]", left.toString());
+        assertEquals("[3, 4, 5, 6]", tail.toString());
+        assertEquals(6, tail.peekLast());
+        left.addLast(7);
+        tail.addFirst(2);
+        assertEquals("[1, 3, 7]", left.toString());
+        assertEquals("[2, 3, 4, 5, 6]", tail.toString());
+        left.undo();
+        left.undo();
+        assertEquals("[1, 3, 3, 4, 5, 6]", left.toString());
+
+        PDoublyLinkedList<Integer> empty = new PDoublyLinkedList<>(2);
+        empty.concat(left);
+        assertEquals(left, empty);
+        assertEquals(0, empty.splitAt(6).size());
+        assertEquals(6, empty.splitAt(0).size());
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.splitAt(0).size());
+        assertEquals(0, empty.splitAt(empty.size()).size());
+        empty.undo();
+        assertEquals(6, empty.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> left.splitAt(7));
+    }
+
+    @Test
+    void concatIntoLargerList() {
+        PDoublyLinkedList<Integer> small = new PDoublyLinkedList<>(2);
+        PDoublyLinkedList<Integer> large = new PDoublyLinkedList<>(2);
+        small.addAll(Arrays.asList(1, 2));
+        for (int i = 3; i <= 40; i++) {
+            large.add(i);
+        }
+        large.remove(0);
+        large.add(0, 3);
+        small.concat(large);
+        assertEquals(40, small.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i + 1, small.get(i));
+        }
+        assertEquals(40, small.removeLast());
+        assertEquals(1, small.removeFirst());
+        assertEquals(38, large.get(35));
+        assertEquals(38, large.size());
+
+        PDoublyLinkedList<Integer> tail = small.splitAt(3);
+        assertEquals("[2, 3, 4]", small.toString());
+        assertEquals(35, tail.size());
+        assertEquals(5, tail.peekFirst());
+        assertEquals(39, tail.peekLast());
+        tail.addFirst(4);
+        assertEquals(4, tail.get(0));
+        assertEquals(5, tail.get(1));
+    }
+
+    @Test
+    void cursor() {
+        lst.addAll(Arrays.asList(1, 2, 3, 4, 5));
+        PDoublyLinkedList<Integer>.Cursor cursor = lst.cursor(2);
+        assertEquals(3, cursor.next());
+        cursor.set(30);
+        cursor.add(31);
+        cursor.add(32);
+        assertEquals("[1, 2, 30, 31, 32, 4, 5]", lst.toString());
+        assertEquals(5, cursor.nextIndex());
+        assertEquals(4, cursor.next());
+        cursor.remove();
+        assertEquals(32, cursor.previous());
+        assertEquals(31, cursor.previous());
+        cursor.remove();
+        assertEquals("[1, 2, 30, 32, 5]", lst.toString());
+        assertThrows(IllegalStateException.class, () -> cursor.set(0));
+
+        while (cursor.hasPrevious()) {
+            cursor.previous();
+        }
+        cursor.add(0);
+        while (cursor.hasNext()) {
+            cursor.next();
+        }
+        cursor.add(6);
+        assertEquals("[0, 1, 2, 30, 32, 5, 6]", lst.toString());
+        assertEquals(6, lst.get(6));
+        lst.undo();
+        assertEquals("[0, 1, 2, 30, 32, 5]", lst.toString());
+        assertThrows(ConcurrentModificationException.class, () -> cursor.add(7));
+        assertEquals(6, cursor.previous());
+
+        PDoublyLinkedList<Integer> list = new PDoublyLinkedList<>(1);
+        list.add(1);
+        PDoublyLinkedList<Integer>.Cursor single = list.cursor();
+        single.next();
+        single.remove();
+        assertEquals(0, list.size());
+        single.add(2);
+        assertEquals("[2]", list.toString());
+    }
+
+    @Test
+    void cursorSetThenRemove() {
+        lst.addAll(Arrays.asList(1, 2, 3));
+        PDoublyLinkedList<Integer>.Cursor cursor = lst.cursor();
+        cursor.next();
+        cursor.set(10);
+        cursor.set(11);
+        assertEquals("[11, 2, 3]", lst.toString());
+        cursor.remove();
+        assertEquals("[2, 3]", lst.toString());
+        assertThrows(IllegalStateException.class, () -> cursor.set(12));
+        assertEquals(2, cursor.next());
+    }
+
     @Test
     void cascadePDoublyLinkedList() {
         PDoublyLinkedList<PDoublyLinkedList<Integer>> parent = new PDoublyLinkedList<>();
@@ -39,6 +39,25 @@ class PHashMapTests {
         assertEquals(2, map.get("B"));
     }
 
+    @Test
+    void versions() {
+        map.put("A", 1);
+        map.put("B", 2);
+        map.put("A", 3);
+        map.remove("B");
+        assertEquals(1, map.get(2, "A"));
+        assertEquals(3, map.get(3, "A"));
+        assertEquals(2, map.get(3, "B"));
+        assertEquals(null, map.get(4, "B"));
+        assertEquals(2, map.size(2));
+        assertEquals(1, map.size(4));
+
+        PHashMap<String, Integer> snapshot = map.snapshot(3);
+        assertEquals(2, snapshot.size());
+        assertEquals(3, snapshot.get("A"));
+        assertEquals(null, map.get("B"));
+    }
+
     @Test
     void size() {
         map.put("A", 1);
@@ -97,6 +116,23 @@ class PHashMapTests {
         assertFalse(map.containsKey("C"));
     }
 
+    @Test
+    void containsNullValue() {
+        map.put("A", null);
+        assertTrue(map.containsKey("A"));
+        assertFalse(map.containsKey("B"));
+        assertTrue(map.containsValue(null));
+        assertEquals(1, map.size());
+
+        map.put("A", 1);
+        assertEquals(1, map.size());
+        assertFalse(map.containsValue(null));
+        map.remove("A");
+        assertEquals(0, map.size());
+        assertTrue(map.isEmpty());
+        assertEquals(1, map.size(1));
+    }
+
     @Test
     void containsValue() {
         map.put("A", 1);
@@ -105,6 +141,101 @@ class PHashMapTests {
         assertFalse(map.containsValue(3));
     }
 
+    @Test
+    void manyKeys() {
+        PHashMap<String, Integer> large = new PHashMap<>(4);
+        for (int i = 0; i < 20000; i++) {
+            large.put("key" + i, i);
+        }
+        assertEquals(20000, large.size());
+        assertEquals(12345, large.get("key12345"));
+        assertEquals(null, large.get("key20000"));
+
+        for (int i = 0; i < 20000; i += 2) {
+            large.remove("key" + i);
+        }
+        assertEquals(10000, large.size());
+        assertEquals(null, large.get("key12344"));
+        assertEquals(12345, large.get("key12345"));
+        assertEquals(12344, large.get(20000, "key12344"));
+        assertEquals(20000, large.size(20000));
+    }
+
+    @Test
+    void resize() {
+        assertEquals(8, map.getWidth());
+        for (int i = 0; i < 7; i++) {
+            map.put("key" + i, i);
+        }
+        assertEquals(16, map.getWidth());
+        for (int i = 7; i < 100; i++) {
+            map.put("key" + i, i);
+        }
+        assertEquals(64, map.getWidth());
+        assertEquals(100, map.size());
+        assertEquals(42, map.get("key42"));
+        assertEquals(5, map.get(6, "key5"));
+        assertEquals(8, map.snapshot(6).getWidth());
+
+        for (int i = 0; i < 94; i++) {
+            map.undo();
+        }
+        assertEquals(8, map.getWidth());
+        assertEquals(6, map.size());
+        assertEquals(null, map.get("key6"));
+        map.redo();
+        assertEquals(16, map.getWidth());
+        assertEquals(6, map.get("key6"));
+    }
+
+    @Test
+    void collisions() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        map.put("Aa", 1);
+        map.put("BB", 2);
+        map.put("C", 3);
+        assertEquals(1, map.get("Aa"));
+        assertEquals(2, map.get("BB"));
+
+        map.put("BB", 4);
+        assertEquals(4, map.get("BB"));
+        assertEquals(3, map.size());
+
+        assertEquals(1, map.remove("Aa"));
+        assertEquals(null, map.get("Aa"));
+        assertEquals(4, map.get("BB"));
+        map.undo();
+        assertEquals(1, map.get("Aa"));
+    }
+
+    @Test
+    void hasher() {
+        PHashMap<String, Integer> identity = new PHashMap<>(Hasher.identity());
+        String key = new String("A");
+        identity.put(key, 1);
+        identity.put(new String("A"), 2);
+        assertEquals(1, identity.get(key));
+        assertEquals(null, identity.get(new String("A")));
+        assertEquals(2, identity.size());
+
+        PHashMap<String, Integer> ignoreCase = new PHashMap<>(new Hasher<String>() {
+            @Override
+            public int hash(String key) {
+                return key.toLowerCase().hashCode();
+            }
+
+            @Override
+            public boolean equals(String left, String right) {
+                return left.equalsIgnoreCase(right);
+            }
+        });
+        ignoreCase.put("Key", 1);
+        ignoreCase.put("KEY", 2);
+        assertEquals(2, ignoreCase.get("key"));
+        assertEquals(1, ignoreCase.size());
+        assertEquals(2, ignoreCase.snapshot(2).get("kEy"));
+    }
+
     @Test
     void undoRedo() {
         map.put("A", 1);
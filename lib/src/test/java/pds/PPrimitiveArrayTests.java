@@ -0,0 +1,99 @@
+package pds;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PPrimitiveArrayTests {
+
+    @Test
+    void intArray() {
+        PIntArray arr = new PIntArray(1);
+        for (int i = 0; i < 100; i++) {
+            arr.add(i * 2);
+        }
+        assertEquals(100, arr.size());
+        assertEquals(0, arr.getInt(0));
+        assertEquals(198, arr.getInt(99));
+        assertEquals(84, arr.get(42));
+
+        arr.set(42, -1);
+        assertEquals(-1, arr.getInt(42));
+        assertEquals(84, arr.getInt(100, 42));
+
+        arr.remove(0);
+        arr.add(0, 7);
+        assertEquals(7, arr.getInt(0));
+        assertEquals(2, arr.getInt(1));
+
+        arr.undo();
+        arr.undo();
+        assertEquals(0, arr.getInt(0));
+        assertEquals(-1, arr.getInt(42));
+    }
+
+    @Test
+    void longArray() {
+        PLongArray arr = new PLongArray(2);
+        arr.add(Long.MAX_VALUE);
+        arr.add(Long.MIN_VALUE);
+        arr.add(1L);
+        assertEquals(Long.MAX_VALUE, arr.getLong(0));
+        assertEquals(Long.MIN_VALUE, arr.getLong(1));
+        assertEquals("[9223372036854775807, -9223372036854775808, 1]", arr.toString());
+    }
+
+    @Test
+    void doubleArray() {
+        PDoubleArray arr = new PDoubleArray(2);
+        for (int i = 0; i < 50; i++) {
+            arr.add(i + 0.5);
+        }
+        arr.add(Double.NaN);
+        assertEquals(10.5, arr.getDouble(10));
+        assertTrue(Double.isNaN(arr.getDouble(50)));
+
+        PDoubleArray slice = arr.slice(10, 20);
+        assertEquals(10, slice.size());
+        assertEquals(19.5, slice.getDouble(9));
+    }
+
+    @Test
+    void concat() {
+        PIntArray left = new PIntArray(1);
+        PIntArray right = new PIntArray(1);
+        for (int i = 0; i < 20; i++) {
+            left.add(i);
+            right.add(i + 20);
+        }
+        left.concat(right);
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, left.getInt(i));
+        }
+
+        PArray<Integer> boxed = new PArray<>(1);
+        boxed.add(40);
+        left.concat(boxed);
+        assertEquals(40, left.getInt(40));
+    }
+
+    @Test
+    void indexOf() {
+        PDoubleArray arr = new PDoubleArray(2);
+        arr.add(0.0);
+        arr.add(-0.0);
+        arr.add(Double.NaN);
+        assertEquals(1, arr.indexOf(-0.0));
+        assertEquals(2, arr.indexOf(Double.NaN));
+        assertEquals(-1, arr.indexOf(0));
+        assertFalse(arr.contains(null));
+
+        PIntArray ints = new PIntArray(1);
+        for (int i = 0; i < 10; i++) {
+            ints.add(i);
+        }
+        assertEquals(9, ints.indexOf(9));
+        assertTrue(ints.contains(3));
+        assertFalse(ints.contains(3L));
+    }
+}
@@ -0,0 +1,102 @@
+package pds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PPrimitiveMapTests {
+
+    @Test
+    void intObjectMap() {
+        PIntObjectMap<String> map = new PIntObjectMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 7, "v" + i);
+        }
+        assertEquals(1000, map.size());
+        assertEquals("v42", map.get(294));
+        assertNull(map.get(295));
+        assertTrue(map.containsKey(6993));
+        assertTrue(map.containsValue("v999"));
+
+        map.put(294, "x");
+        assertEquals("x", map.get(294));
+        assertEquals("v42", map.get(1000, 294));
+        assertEquals(1000, map.size());
+
+        assertEquals("x", map.remove(294));
+        assertNull(map.remove(294));
+        assertEquals(999, map.size());
+        assertFalse(map.containsKey(294));
+
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+        assertEquals(999, keys.length);
+        assertEquals(6993, keys[998]);
+
+        map.undo();
+        map.undo();
+        assertEquals("v42", map.get(294));
+        assertEquals("v42", map.snapshot(1000).get(294));
+    }
+
+    @Test
+    void longObjectMap() {
+        PLongObjectMap<Integer> map = new PLongObjectMap<>();
+        long[] keys = {Long.MIN_VALUE, -1L, 0L, 1L, 1L << 32, Long.MAX_VALUE};
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, map.get(keys[i]));
+        }
+        assertNull(map.get(2L));
+        for (long key : keys) {
+            map.remove(key);
+        }
+        assertTrue(map.isEmpty());
+        assertEquals(6, map.size(6));
+
+        map.put(5L, null);
+        assertTrue(map.containsKey(5L));
+        assertTrue(map.containsValue(null));
+        map.remove(5L);
+        map.put(-5L, 7);
+        assertEquals("[-5:7]", map.toString());
+
+        PLongObjectMap<PLongObjectMap<Integer>> outer = new PLongObjectMap<>();
+        PLongObjectMap<Integer> inner = new PLongObjectMap<>();
+        outer.put(1L, inner);
+        inner.put(2L, 3);
+        assertEquals("[1:[2:3]]", outer.toString());
+        outer.undo();
+        assertTrue(inner.isEmpty());
+    }
+
+    @Test
+    void longLongMap() {
+        PLongLongMap map = new PLongLongMap();
+        for (long i = 0; i < 10000; i++) {
+            map.put(i << 20, -i);
+        }
+        assertEquals(10000, map.size());
+        assertEquals(-9999L, map.getOrDefault(9999L << 20, 1L));
+        assertEquals(1L, map.getOrDefault(1L, 1L));
+        assertTrue(map.containsValue(-5000L));
+
+        for (long i = 0; i < 10000; i += 2) {
+            assertTrue(map.remove(i << 20));
+        }
+        assertFalse(map.remove(0L));
+        assertEquals(5000, map.size());
+        assertEquals(-3L, map.getOrDefault(3L << 20, 0L));
+        assertEquals(-2L, map.getOrDefault(10000, 2L << 20, 0L));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        map.undo();
+        assertEquals(5000, map.values().length);
+        assertEquals(5000, map.keys().length);
+    }
+}
@@ -0,0 +1,59 @@
+package pds;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PReducedArrayTests {
+
+    @Test
+    void sum() {
+        PReducedArray<Integer> arr = new PReducedArray<>(1, 0, Integer::sum);
+        assertEquals(0, arr.reduce());
+        for (int i = 1; i <= 100; i++) {
+            arr.add(i);
+        }
+        assertEquals(5050, arr.reduce());
+        assertEquals(55, arr.reduce(0, 10));
+        assertEquals(0, arr.reduce(50, 50));
+        assertEquals(100, arr.reduce(99, 100));
+
+        arr.set(0, 101);
+        assertEquals(5150, arr.reduce());
+        assertEquals(5050, arr.reduce(100, 0, 100));
+
+        arr.remove(50);
+        arr.add(10, 0);
+        assertEquals(5099, arr.reduce());
+        assertEquals(0, arr.reduce(10, 11));
+
+        arr.undo();
+        arr.undo();
+        assertEquals(5150, arr.reduce());
+        assertThrows(IndexOutOfBoundsException.class, () -> arr.reduce(5, 101));
+    }
+
+    @Test
+    void minAfterConcat() {
+        PReducedArray<Integer> arr = new PReducedArray<>(2, Integer.MAX_VALUE, Math::min);
+        for (int i = 0; i < 200; i++) {
+            arr.add(1000 - i);
+        }
+        assertEquals(801, arr.reduce());
+        assertEquals(901, arr.reduce(0, 100));
+
+        PReducedArray<Integer> slice = arr.slice(10, 60);
+        assertEquals(941, slice.reduce());
+
+        arr.concat(slice);
+        assertEquals(250, arr.size());
+        assertEquals(941, arr.reduce(200, 250));
+        assertEquals(801, arr.reduce(150, 250));
+
+        PArray.Transient<Integer> tr = arr.asTransient();
+        tr.set(230, -5);
+        tr.persistent();
+        assertEquals(-5, arr.reduce());
+        assertEquals(801, arr.reduce(arr.currentVersion() - 1, 0, 250));
+    }
+}